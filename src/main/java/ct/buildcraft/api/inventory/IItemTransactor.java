@@ -46,6 +46,32 @@ public interface IItemTransactor {
     @Nonnull
     ItemStack extract(@Nullable IStackFilter filter, int min, int max, boolean simulate);
 
+    /** Extracts up to a number of different stacks that match the given filter. This is similar to calling
+     * {@link #extract(IStackFilter, int, int, boolean)} several times (while excluding the stacks that have already been
+     * found) but implementations are encouraged to find all of the stacks in a single pass over their contents.
+     * 
+     * @param filter The filter that MUST be met by every extracted stack. Null means no filter - it can be any item.
+     * @param maxStacks The maximum number of different stacks to extract.
+     * @param maxPerStack The maximum number of items in each of the returned stacks.
+     * @param simulate If true then the in-world state of this will not be changed.
+     * @return The stacks that were extracted, in the order that they were found. None of them will be able to merge with
+     *         each other. Will be an empty list if nothing could be extracted. */
+    default NonNullList<ItemStack> extractStacks(@Nullable IStackFilter filter, int maxStacks, int maxPerStack,
+        boolean simulate) {
+        NonNullList<ItemStack> stacks = NonNullList.create();
+        IStackFilter remaining = filter;
+        while (stacks.size() < maxStacks) {
+            ItemStack stack = extract(remaining, 1, maxPerStack, simulate);
+            if (stack.isEmpty()) {
+                break;
+            }
+            stacks.add(stack);
+            IStackFilter previous = remaining;
+            remaining = s -> (previous == null || previous.matches(s)) && !ItemStack.isSameItemSameTags(s, stack);
+        }
+        return stacks;
+    }
+
     default boolean canFullyAccept(@Nonnull ItemStack stack) {
         return insert(stack, true, true).isEmpty();
     }
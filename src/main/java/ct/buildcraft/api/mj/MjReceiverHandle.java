@@ -0,0 +1,97 @@
+package ct.buildcraft.api.mj;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.capabilities.ICapabilityProvider;
+import net.minecraftforge.common.util.LazyOptional;
+
+/** Holds the {@link IMjReceiver} on one side of a power source (such as an engine), so that it only needs to be looked
+ * up through {@link MjAPI#CAP_RECEIVER} once rather than every time power is sent. The owner should call
+ * {@link #invalidate()} whenever the neighbouring block changes- the handle will also invalidate itself if the
+ * receiver's capability is invalidated. */
+public final class MjReceiverHandle {
+    @Nonnull
+    private final IMjConnector source;
+
+    @Nullable
+    private Direction side;
+
+    @Nullable
+    private IMjReceiver receiver;
+
+    /** The tile that {@link #receiver} came from, if it was a tile. Checked on every use, as not every receiver
+     * invalidates its capability when it is removed or unloaded. */
+    @Nullable
+    private BlockEntity receiverTile;
+
+    /** Incremented on every resolve or invalidation, so that listeners added to old capabilities can't invalidate a
+     * newer result. */
+    private int generation;
+
+    public MjReceiverHandle(@Nonnull IMjConnector source) {
+        this.source = source;
+    }
+
+    /** @return True if {@link #getReceiver()} holds the result of {@link #resolve(ICapabilityProvider, Direction)} for
+     *         the given side. This invalidates the handle (and returns false) if the receiver's tile has been removed or
+     *         unloaded since then. */
+    public boolean isResolved(Direction side) {
+        if (this.side != side) {
+            return false;
+        }
+        if (receiverTile != null) {
+            Level level = receiverTile.getLevel();
+            if (receiverTile.isRemoved() || level == null || !level.isLoaded(receiverTile.getBlockPos())) {
+                invalidate();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** @return The receiver found by the last call to {@link #resolve(ICapabilityProvider, Direction)}, or null if
+     *         there wasn't one (or if this isn't resolved). */
+    @Nullable
+    public IMjReceiver getReceiver() {
+        return receiver;
+    }
+
+    /** Looks up the receiver of the given tile, and stores it if it can connect to the source.
+     *
+     * @param tile The tile to look in, or null if there isn't one on that side.
+     * @param side The side of the source that the tile is on.
+     * @return The receiver, or null if there isn't one that the source can connect to. */
+    @Nullable
+    public IMjReceiver resolve(@Nullable ICapabilityProvider tile, Direction side) {
+        invalidate();
+        this.side = side;
+        if (tile == null) {
+            return null;
+        }
+        LazyOptional<IMjReceiver> cap = tile.getCapability(MjAPI.CAP_RECEIVER, side.getOpposite());
+        IMjReceiver recv = cap.orElse(null);
+        if (recv == null || !recv.canConnect(source) || !source.canConnect(recv)) {
+            return null;
+        }
+        receiver = recv;
+        receiverTile = tile instanceof BlockEntity ? (BlockEntity) tile : null;
+        int gen = generation;
+        cap.addListener(c -> {
+            if (generation == gen) {
+                invalidate();
+            }
+        });
+        return recv;
+    }
+
+    public void invalidate() {
+        generation++;
+        side = null;
+        receiver = null;
+        receiverTile = null;
+    }
+}
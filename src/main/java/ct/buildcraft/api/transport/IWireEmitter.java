@@ -9,8 +9,8 @@ package ct.buildcraft.api.transport;
 import net.minecraft.world.item.DyeColor;
 
 public interface IWireEmitter {
-    /** Checks to see if this wire emitter is currently emitting the given colour. Only used to check if a given emitter
-     * is still active. */
+    /** Checks to see if this wire emitter is currently emitting the given colour. The pipe holding this emitter checks
+     * every colour once per tick, and tells the wire systems whenever one of them changes. */
     boolean isEmitting(DyeColor colour);
 
     /** Emits the given wire colour this tick. */
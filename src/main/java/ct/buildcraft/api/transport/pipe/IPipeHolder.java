@@ -59,6 +59,11 @@ public interface IPipeHolder extends IRedstoneStatementContainer {
     /** @param parts The parts that want to send a network update. */
     void scheduleNetworkUpdate(PipeMessageReceiver... parts);
 
+    /** Makes sure that this holder will tick next tick. Holders stop ticking while the pipe and every pluggable is idle
+     * (see {@link PipeFlow#isIdle()}), so this must be called whenever something gives them more work to do from
+     * outside of their own tick- for example when an item or fluid is inserted. */
+    void wakeUp();
+
     /** Schedules a GUI network update, that is only the players who currently have a pipe element open in a GUI will be
      * updated.
      * 
@@ -83,6 +83,12 @@ public abstract class PipeBehaviour implements ICapabilityProvider {
 
     public void onTick() {}
 
+    /** @return True if {@link #onTick()} has nothing to do until something calls {@link IPipeHolder#wakeUp()} or the
+     *         pipe's connections change. Behaviours that override {@link #onTick()} should override this as well. */
+    public boolean isIdle() {
+        return true;
+    }
+
 
 
     @Override
@@ -2,10 +2,15 @@ package ct.buildcraft.api.transport.pipe;
 
 /** The base class for all pipe events. Some event classes can be cancelled with {@link #cancel()}, however this will
  * only have an effect if {@link #canBeCancelled} is true. Refer to individual classes for information on if they can
- * be cancelled, and what cancelling the event does. */
+ * be cancelled, and what cancelling the event does.
+ * <p>
+ * An event is only valid while it is being fired. Some events are reused after they have been fired (see
+ * {@link PipeEventItemContext}), so handlers must never keep a reference to an event - or any list or set inside of
+ * it - after the handler returns. Copy out whatever is needed instead. */
 public abstract class PipeEvent {
     public final boolean canBeCancelled;
-    public final IPipeHolder holder;
+    /** The holder that fired this event. Never change this! (It's only non-final so that events can be reused). */
+    public IPipeHolder holder;
     private boolean canceled = false;
 
     public PipeEvent(IPipeHolder holder) {
@@ -29,6 +34,12 @@ public abstract class PipeEvent {
         return canceled;
     }
 
+    /** Prepares this event to be fired again, for {@link PipeEventItemContext}. */
+    void resetEvent(IPipeHolder holder) {
+        this.holder = holder;
+        this.canceled = false;
+    }
+
     /** Called after every event handler has received this pipe event, to pick up simple mistakes when implementing pipe
      * event handlers.
      *
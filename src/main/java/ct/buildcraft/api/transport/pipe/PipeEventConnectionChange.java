@@ -2,8 +2,9 @@ package ct.buildcraft.api.transport.pipe;
 
 import net.minecraft.core.Direction;
 
-/** Fired whenever a connection change is picked up by an {@link IPipe}. This even doesn't include the new value
- * (boolean isConnected) as it can be accessed via {@link IPipe#isConnected(Direction)}. */
+/** Fired whenever a connection change is picked up by an {@link IPipe}, and whenever the pluggable on a side is
+ * replaced (as that can change what the pipe connects to or exposes on that side). This even doesn't include the new
+ * value (boolean isConnected) as it can be accessed via {@link IPipe#isConnected(Direction)}. */
 public class PipeEventConnectionChange extends PipeEvent {
 
     public final Direction direction;
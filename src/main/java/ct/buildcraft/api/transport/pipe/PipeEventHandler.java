@@ -6,7 +6,8 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /** Designates a method that will receive a pipe event. The method must be public and take a single parameter that
- * extends {@link PipeEvent}. <br>
+ * extends {@link PipeEvent}. The method must not keep a reference to the event after it returns, as some events are
+ * reused (see {@link PipeEventItemContext}). <br>
  * An example is:<br>
  * <code>
     &#64;PipeEventHandler <br>
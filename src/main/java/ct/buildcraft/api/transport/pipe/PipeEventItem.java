@@ -21,7 +21,9 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 
 public abstract class PipeEventItem extends PipeEvent {
 
-    public final IFlowItems flow;
+    /** The flow that fired this event. Never change this! (It's only non-final so that events can be reused by
+     * {@link PipeEventItemContext}). */
+    public IFlowItems flow;
 
     protected PipeEventItem(IPipeHolder holder, IFlowItems flow) {
         super(holder);
@@ -35,6 +37,11 @@ public abstract class PipeEventItem extends PipeEvent {
         this.flow = flow;
     }
 
+    void resetItemEvent(IPipeHolder holder, IFlowItems flow) {
+        resetEvent(holder);
+        this.flow = flow;
+    }
+
     // ################
     //
     // Misc events
@@ -80,6 +87,12 @@ public abstract class PipeEventItem extends PipeEvent {
             this.stack = stack;
         }
 
+        void resetReachDest(IPipeHolder holder, IFlowItems flow, DyeColor colour, @Nonnull ItemStack stack) {
+            resetItemEvent(holder, flow);
+            this.colour = colour;
+            this.stack = stack;
+        }
+
         @Nonnull
         public ItemStack getStack() {
             return this.stack;
@@ -107,24 +120,34 @@ public abstract class PipeEventItem extends PipeEvent {
 
     /** Fired whenever an item reaches the centre of a pipe. Note that you *can* change the itemstack or the colour. */
     public static class ReachCenter extends ReachDest {
-        public final Direction from;
+        public Direction from;
 
         public ReachCenter(IPipeHolder holder, IFlowItems flow, DyeColor colour, @Nonnull ItemStack stack,
             Direction from) {
             super(holder, flow, colour, stack);
             this.from = from;
         }
+
+        void reset(IPipeHolder holder, IFlowItems flow, DyeColor colour, @Nonnull ItemStack stack, Direction from) {
+            resetReachDest(holder, flow, colour, stack);
+            this.from = from;
+        }
     }
 
     /** Fired whenever an item reaches the end of a pipe. Note that you *can* change the itemstack or the colour. */
     public static class ReachEnd extends ReachDest {
-        public final Direction to;
+        public Direction to;
 
         public ReachEnd(IPipeHolder holder, IFlowItems flow, DyeColor colour, @Nonnull ItemStack stack,
             Direction to) {
             super(holder, flow, colour, stack);
             this.to = to;
         }
+
+        void reset(IPipeHolder holder, IFlowItems flow, DyeColor colour, @Nonnull ItemStack stack, Direction to) {
+            resetReachDest(holder, flow, colour, stack);
+            this.to = to;
+        }
     }
 
     /** Fired whenever the item exists from this pipe in a normal manner (inserted into another pipe or inventory, this
@@ -191,12 +214,15 @@ public abstract class PipeEventItem extends PipeEvent {
     // ############################
 
     /** Fired after {@link ReachCenter} to determine what sides are the items NOT allowed to go to, and the order of
-     * priority for the allowed sides. */
+     * priority for the allowed sides. The result may be cached by the pipe for items with the same type, tag, colour
+     * and source side, so handlers should only depend on those and on the state of the pipe itself. */
     public static class SideCheck extends PipeEventItem {
-        public final DyeColor colour;
-        public final Direction from;
+        private static final EnumSet<Direction> ALL_SIDES = EnumSet.allOf(Direction.class);
+
+        public DyeColor colour;
+        public Direction from;
         @Nonnull
-        public final ItemStack stack;
+        public ItemStack stack;
 
         /** The priorities of each side. Stored inversely to the values given, so a higher priority will have a lower
          * value than a lower priority. */
@@ -211,6 +237,15 @@ public abstract class PipeEventItem extends PipeEvent {
             this.stack = stack;
         }
 
+        void reset(IPipeHolder holder, IFlowItems flow, DyeColor colour, Direction from, @Nonnull ItemStack stack) {
+            resetItemEvent(holder, flow);
+            this.colour = colour;
+            this.from = from;
+            this.stack = stack;
+            Arrays.fill(priority, 0);
+            allowed.addAll(ALL_SIDES);
+        }
+
         /** Checks to see if a side if allowed. Note that this may return true even though a later handler might
          * disallow a side, so you should only use this to skip checking a side (for example a diamond pipe might not
          * check the filters for a specific side if its already been disallowed) */
@@ -349,13 +384,18 @@ public abstract class PipeEventItem extends PipeEvent {
 
     /** Base class for {@link Split} and {@link FindDest}. Do not listen to this directly! */
     public static abstract class OrderedEvent extends PipeEventItem {
-        public final List<EnumSet<Direction>> orderedDestinations;
+        public List<EnumSet<Direction>> orderedDestinations;
 
         public OrderedEvent(IPipeHolder holder, IFlowItems flow, List<EnumSet<Direction>> orderedDestinations) {
             super(holder, flow);
             this.orderedDestinations = orderedDestinations;
         }
 
+        void resetOrdered(IPipeHolder holder, IFlowItems flow, List<EnumSet<Direction>> orderedDestinations) {
+            resetItemEvent(holder, flow);
+            this.orderedDestinations = orderedDestinations;
+        }
+
         public EnumSet<Direction> getAllPossibleDestinations() {
             EnumSet<Direction> set = EnumSet.noneOf(Direction.class);
             for (EnumSet<Direction> e : orderedDestinations) {
@@ -386,25 +426,38 @@ public abstract class PipeEventItem extends PipeEvent {
             super(holder, flow, order);
             items.add(toSplit);
         }
+
+        void reset(IPipeHolder holder, IFlowItems flow, List<EnumSet<Direction>> order, ItemEntry toSplit) {
+            resetOrdered(holder, flow, order);
+            items.clear();
+            items.add(toSplit);
+        }
     }
 
     /** Fired after {@link Split}. This event is for assigning a destination to each {@link ItemEntry} in
      * {@link Split#items}. If you need to generate a random facing for each one then use
      * {@link OrderedEvent#generateRandomOrder()}. */
     public static class FindDest extends OrderedEvent {
-        public final ImmutableList<ItemEntry> items;
+        /** The items to find a destination for. This list can't be modified. */
+        public List<ItemEntry> items;
 
         public FindDest(IPipeHolder holder, IFlowItems flow, List<EnumSet<Direction>> orderedDestinations,
-            ImmutableList<ItemEntry> items) {
+            List<ItemEntry> items) {
             super(holder, flow, orderedDestinations);
             this.items = items;
         }
+
+        void reset(IPipeHolder holder, IFlowItems flow, List<EnumSet<Direction>> orderedDestinations,
+            List<ItemEntry> items) {
+            resetOrdered(holder, flow, orderedDestinations);
+            this.items = items;
+        }
     }
 
     /** Fired after {@link FindDest}. */
     public static class ModifySpeed extends PipeEventItem {
-        public final ItemEntry item;
-        public final double currentSpeed;
+        public ItemEntry item;
+        public double currentSpeed;
         public double targetSpeed = 0;
         public double maxSpeedChange = 0;
 
@@ -414,18 +467,27 @@ public abstract class PipeEventItem extends PipeEvent {
             currentSpeed = initSpeed;
         }
 
+        void reset(IPipeHolder holder, IFlowItems flow, ItemEntry item, double initSpeed) {
+            resetItemEvent(holder, flow);
+            this.item = item;
+            currentSpeed = initSpeed;
+            targetSpeed = 0;
+            maxSpeedChange = 0;
+        }
+
         public void modifyTo(double target, double maxDelta) {
             targetSpeed = target;
             maxSpeedChange = maxDelta;
         }
     }
 
-    /** Mostly immutable holding class for item stacks. */
+    /** Mostly immutable holding class for item stacks. (The fields are only non-final so that the first entry can be
+     * reused by {@link PipeEventItemContext} - never change them!) */
     public static class ItemEntry {
-        public final DyeColor colour;
+        public DyeColor colour;
         @Nonnull
-        public final ItemStack stack;
-        public final Direction from;
+        public ItemStack stack;
+        public Direction from;
         /** The list of the destinations to try, in order. */
         @Nullable
         public List<Direction> to;
@@ -435,5 +497,12 @@ public abstract class PipeEventItem extends PipeEvent {
             this.stack = stack;
             this.from = from;
         }
+
+        void reset(DyeColor colour, @Nonnull ItemStack stack, Direction from) {
+            this.colour = colour;
+            this.stack = stack;
+            this.from = from;
+            this.to = null;
+        }
     }
 }
@@ -0,0 +1,125 @@
+package ct.buildcraft.api.transport.pipe;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import javax.annotation.Nonnull;
+
+import ct.buildcraft.api.transport.pipe.PipeEventItem.FindDest;
+import ct.buildcraft.api.transport.pipe.PipeEventItem.ItemEntry;
+import ct.buildcraft.api.transport.pipe.PipeEventItem.ModifySpeed;
+import ct.buildcraft.api.transport.pipe.PipeEventItem.ReachCenter;
+import ct.buildcraft.api.transport.pipe.PipeEventItem.ReachEnd;
+import ct.buildcraft.api.transport.pipe.PipeEventItem.SideCheck;
+import ct.buildcraft.api.transport.pipe.PipeEventItem.Split;
+
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.ItemStack;
+
+/** Holds a single reusable instance of each of the {@link PipeEventItem} events that an {@link IFlowItems} fires for
+ * every item that reaches the centre or the end of a pipe, so that moving an item doesn't allocate a new event for
+ * every step.
+ * <p>
+ * Usage:
+ * <pre>
+ * PipeEventItemContext ctx = PipeEventItemContext.acquire();
+ * try {
+ *     ReachCenter event = ctx.reachCenter(holder, flow, colour, stack, from);
+ *     holder.fireEvent(event);
+ *     // ...
+ * } finally {
+ *     ctx.release();
+ * }
+ * </pre>
+ * Every method resets and returns the same event instance each time, so the previous event of that type is no longer
+ * valid. This is why event handlers must never keep a reference to an event (see {@link PipeEvent}).
+ * <p>
+ * There is one context per thread. If {@link #acquire()} is called again before {@link #release()} (for example if an
+ * event handler causes another pipe to move an item) then a new, unpooled context is returned instead. */
+public final class PipeEventItemContext {
+
+    private static final ThreadLocal<PipeEventItemContext> CONTEXTS = ThreadLocal.withInitial(PipeEventItemContext::new);
+
+    private boolean inUse = false;
+
+    private final ReachCenter reachCenter = new ReachCenter(null, null, null, ItemStack.EMPTY, null);
+    private final ReachEnd reachEnd = new ReachEnd(null, null, null, ItemStack.EMPTY, null);
+    private final SideCheck sideCheck = new SideCheck(null, null, null, null, ItemStack.EMPTY);
+    private final ItemEntry itemEntry = new ItemEntry(null, ItemStack.EMPTY, null);
+    private final Split split = new Split(null, null, Collections.emptyList(), itemEntry);
+    private final List<ItemEntry> findDestItems = new ArrayList<>();
+    private final List<ItemEntry> findDestItemsView = Collections.unmodifiableList(findDestItems);
+    private final FindDest findDest = new FindDest(null, null, Collections.emptyList(), findDestItemsView);
+    private final ModifySpeed modifySpeed = new ModifySpeed(null, null, null, 0);
+
+    private PipeEventItemContext() {}
+
+    /** @return The context for the current thread, which must be given back with {@link #release()}. */
+    public static PipeEventItemContext acquire() {
+        PipeEventItemContext ctx = CONTEXTS.get();
+        if (ctx.inUse) {
+            return new PipeEventItemContext();
+        }
+        ctx.inUse = true;
+        return ctx;
+    }
+
+    /** Clears every event (so that they don't keep any stacks or pipes loaded) and allows this context to be acquired
+     * again. */
+    public void release() {
+        reachCenter.reset(null, null, null, ItemStack.EMPTY, null);
+        reachEnd.reset(null, null, null, ItemStack.EMPTY, null);
+        sideCheck.reset(null, null, null, null, ItemStack.EMPTY);
+        itemEntry.reset(null, ItemStack.EMPTY, null);
+        split.reset(null, null, Collections.emptyList(), itemEntry);
+        findDestItems.clear();
+        findDest.reset(null, null, Collections.emptyList(), findDestItemsView);
+        modifySpeed.reset(null, null, null, 0);
+        inUse = false;
+    }
+
+    public ReachCenter reachCenter(IPipeHolder holder, IFlowItems flow, DyeColor colour, @Nonnull ItemStack stack,
+        Direction from) {
+        reachCenter.reset(holder, flow, colour, stack, from);
+        return reachCenter;
+    }
+
+    public ReachEnd reachEnd(IPipeHolder holder, IFlowItems flow, DyeColor colour, @Nonnull ItemStack stack,
+        Direction to) {
+        reachEnd.reset(holder, flow, colour, stack, to);
+        return reachEnd;
+    }
+
+    public SideCheck sideCheck(IPipeHolder holder, IFlowItems flow, DyeColor colour, Direction from,
+        @Nonnull ItemStack stack) {
+        sideCheck.reset(holder, flow, colour, from, stack);
+        return sideCheck;
+    }
+
+    public ItemEntry itemEntry(DyeColor colour, @Nonnull ItemStack stack, Direction from) {
+        itemEntry.reset(colour, stack, from);
+        return itemEntry;
+    }
+
+    public Split split(IPipeHolder holder, IFlowItems flow, List<EnumSet<Direction>> order, ItemEntry toSplit) {
+        split.reset(holder, flow, order, toSplit);
+        return split;
+    }
+
+    /** @param items The entries to find destinations for. These are copied, so the list can be reused afterwards. */
+    public FindDest findDest(IPipeHolder holder, IFlowItems flow, List<EnumSet<Direction>> order,
+        List<ItemEntry> items) {
+        findDestItems.clear();
+        findDestItems.addAll(items);
+        findDest.reset(holder, flow, order, findDestItemsView);
+        return findDest;
+    }
+
+    public ModifySpeed modifySpeed(IPipeHolder holder, IFlowItems flow, ItemEntry item, double initSpeed) {
+        modifySpeed.reset(holder, flow, item, initSpeed);
+        return modifySpeed;
+    }
+}
@@ -77,6 +77,12 @@ public abstract class PipeFlow implements ICapabilityProvider {
 
     public void onTick() {}
 
+    /** @return True if {@link #onTick()} has nothing to do until something is inserted into this flow (which must call
+     *         {@link IPipeHolder#wakeUp()}) or the pipe's connections change. Defaults to false. */
+    public boolean isIdle() {
+        return false;
+    }
+
     public void addDrops(NonNullList<ItemStack> toDrop, int fortune) {}
 
     public boolean onFlowActivate(Player player, BlockHitResult trace, Level level,
@@ -73,6 +73,12 @@ public abstract class PipePluggable {
 
     public void onTick() {}
 
+    /** @return True if {@link #onTick()} has nothing to do until something calls {@link IPipeHolder#wakeUp()}.
+     *         Pluggables that override {@link #onTick()} should override this as well. */
+    public boolean isIdle() {
+        return true;
+    }
+
     /** @return A bounding box that will be used for collisions and raytracing. */
     public abstract VoxelShape getBoundingBox();
 
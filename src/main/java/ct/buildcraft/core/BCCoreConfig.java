@@ -70,6 +70,7 @@ public class BCCoreConfig {
     private static IntValue propNetworkUpdateRate;
     private static DoubleValue propMiningMultiplier;
     private static IntValue propMiningMaxDepth;
+    private static IntValue propMinChunkDirtyInterval;
 
     public static void preInit() {
         ForgeConfigSpec.Builder con_builder = new ForgeConfigSpec.Builder();
@@ -177,6 +178,10 @@ public class BCCoreConfig {
         propGuideItemSearchLimit = con_builder.comment("The maximum number of items that the guide book will index.")
         .defineInRange("guideItemSearchLimit", 10_000, 1_500, 5_000_000);
 
+        propMinChunkDirtyInterval = con_builder.comment("The minimum time, in ticks, between machines (like engines) that change every tick marking their chunk as needing to be saved."
+                + " Increasing this might help with autosave lag, at the cost of machines possibly losing that many ticks of progress if the game crashes.")
+        .defineInRange("minChunkDirtyInterval", 20, 1, 1200);
+
         config = con_builder.build();
 
         MinecraftForge.EVENT_BUS.register(BCCoreConfig.class);
@@ -214,6 +219,7 @@ public class BCCoreConfig {
         BCLibConfig.enableAnimatedSprites = propEnableAnimatedSprites.get();
         miningMultiplier = Mth.clamp(propMiningMultiplier.get(), 1, 200);
         miningMaxDepth = propMiningMaxDepth.get();
+        BCLibConfig.minChunkDirtyInterval = propMinChunkDirtyInterval.get();
         
         
         BCLibConfig.chunkLoadingLevel = propChunkLoadLevel.get();
@@ -137,6 +137,7 @@ public class TileEngineCreative extends TileEngineBase_BC8 {
                 currentOutputIndex %= outputs.length;
                 player.displayClientMessage(Component.translatable("chat.pipe.power.iron.mode").append(""+outputs[currentOutputIndex]), true);
                 sendNetworkUpdate(NET_RENDER_DATA);
+                markChunkDirty();
             }
             return InteractionResult.SUCCESS;
         }
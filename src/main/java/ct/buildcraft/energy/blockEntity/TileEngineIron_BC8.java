@@ -86,6 +86,8 @@ public class TileEngineIron_BC8 extends TileEngineBase_BC8 implements MenuProvid
     private int penaltyCooling = 0;
     private boolean lastPowered = false;
     private double burnTime;
+    private int lastPenaltyCoolingSaved = -1;
+    private double lastBurnTimeSaved = -1;
     private double residueAmount = 0;
     private IFuel currentFuel;
     
@@ -111,6 +113,18 @@ public class TileEngineIron_BC8 extends TileEngineBase_BC8 implements MenuProvid
 
     // TileEntity overrides
 
+    @Override
+    protected boolean checkSaveDataChanged() {
+        boolean changed = super.checkSaveDataChanged();
+        // The tanks mark the chunk dirty themselves whenever they change
+        if (penaltyCooling != lastPenaltyCoolingSaved || burnTime != lastBurnTimeSaved) {
+            lastPenaltyCoolingSaved = penaltyCooling;
+            lastBurnTimeSaved = burnTime;
+            changed = true;
+        }
+        return changed;
+    }
+
     @Override
     public void saveAdditional(CompoundTag nbt) {
         super.saveAdditional(nbt);
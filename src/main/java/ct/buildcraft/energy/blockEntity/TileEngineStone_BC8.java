@@ -61,6 +61,10 @@ public class TileEngineStone_BC8 extends TileEngineBase_BC8 implements MenuProvi
 
     private boolean isForceInserting = false;
 
+    private int lastBurnTimeSaved = -1;
+    private int lastTotalBurnTimeSaved = -1;
+    private long lastEsumSaved = -1;
+
     public TileEngineStone_BC8(BlockPos pos, BlockState state) {
     	super(BCEnergyBlocks.ENGINE_STONE_TILE_BC8.get(), pos, state);
         invFuel = itemManager.addInvHandler("fuel", 1, this::isValidFuel, EnumAccess.BOTH, EnumPipePart.VALUES).setChecker(null).setChecker((a,b) -> ForgeHooks.getBurnTime(b,RecipeType.SMELTING)>0);
@@ -92,6 +96,18 @@ public class TileEngineStone_BC8 extends TileEngineBase_BC8 implements MenuProvi
         nbt.putLong("esum", esum);
     }
 
+    @Override
+    protected boolean checkSaveDataChanged() {
+        boolean changed = super.checkSaveDataChanged();
+        if (burnTime != lastBurnTimeSaved || totalBurnTime != lastTotalBurnTimeSaved || esum != lastEsumSaved) {
+            lastBurnTimeSaved = burnTime;
+            lastTotalBurnTimeSaved = totalBurnTime;
+            lastEsumSaved = esum;
+            changed = true;
+        }
+        return changed;
+    }
+
     @Override
     protected void onSlotChange(IItemHandlerModifiable handler, int slot, @Nonnull ItemStack before,
         @Nonnull ItemStack after) {
@@ -0,0 +1,107 @@
+package ct.buildcraft.energy.generation.features;
+
+import java.util.function.Predicate;
+
+import ct.buildcraft.lib.misc.data.Box;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+
+/** Places the oil of a single {@link OilGenStructure} one chunk section at a time. Each section is looked up once, and
+ * the existing block at each position is read straight from the section's palette (rather than going through the
+ * {@link WorldGenLevel} for every block), so positions that are already oil (where structures overlap) or that can't
+ * be replaced are skipped without touching the world. */
+final class OilBlockWriter {
+    private final WorldGenLevel world;
+    private final OilGenStructure.ReplaceType replaceType;
+    private final BlockState oil;
+    private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+
+    private int lastChunkX = Integer.MIN_VALUE, lastChunkZ = Integer.MIN_VALUE;
+    private ChunkAccess lastChunk;
+
+    /** The number of oil blocks that have been set so far. */
+    private int placed;
+
+    OilBlockWriter(WorldGenLevel world, OilGenStructure.ReplaceType replaceType, BlockState oil) {
+        this.world = world;
+        this.replaceType = replaceType;
+        this.oil = oil;
+    }
+
+    /** Sets oil at every position in the given box that the predicate accepts, going through the box section by
+     * section. Positions outside of the world's height, or in chunks that the world can't provide, are ignored. */
+    void fill(Box within, Predicate<BlockPos> predicate) {
+        BlockPos min = within.min();
+        BlockPos max = within.max();
+        int minY = Math.max(min.getY(), world.getMinBuildHeight());
+        int maxY = Math.min(max.getY(), world.getMaxBuildHeight() - 1);
+        if (minY > maxY) {
+            return;
+        }
+        for (int cx = min.getX() >> 4; cx <= max.getX() >> 4; cx++) {
+            for (int cz = min.getZ() >> 4; cz <= max.getZ() >> 4; cz++) {
+                ChunkAccess chunk = getChunk(cx, cz);
+                if (chunk == null) {
+                    continue;
+                }
+                int x0 = Math.max(min.getX(), cx << 4), x1 = Math.min(max.getX(), (cx << 4) + 15);
+                int z0 = Math.max(min.getZ(), cz << 4), z1 = Math.min(max.getZ(), (cz << 4) + 15);
+                for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+                    LevelChunkSection section = chunk.getSection(chunk.getSectionIndexFromSectionY(sy));
+                    int y0 = Math.max(minY, sy << 4), y1 = Math.min(maxY, (sy << 4) + 15);
+                    for (int y = y0; y <= y1; y++) {
+                        for (int z = z0; z <= z1; z++) {
+                            for (int x = x0; x <= x1; x++) {
+                                pos.set(x, y, z);
+                                if (predicate.test(pos)) {
+                                    setOil(section, pos);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /** Sets oil at a single position, if it can be replaced. */
+    void setOil(BlockPos at) {
+        if (at.getY() < world.getMinBuildHeight() || at.getY() >= world.getMaxBuildHeight()) {
+            return;
+        }
+        ChunkAccess chunk = getChunk(at.getX() >> 4, at.getZ() >> 4);
+        if (chunk != null) {
+            setOil(chunk.getSection(chunk.getSectionIndex(at.getY())), at);
+        }
+    }
+
+    private void setOil(LevelChunkSection section, BlockPos at) {
+        int x = SectionPos.sectionRelative(at.getX());
+        int y = SectionPos.sectionRelative(at.getY());
+        int z = SectionPos.sectionRelative(at.getZ());
+        BlockState current = section.getBlockState(x, y, z);
+        if (current == oil || !replaceType.canReplace(current)) {
+            return;
+        }
+        OilGenStructure.setOil(world, at.immutable());
+        placed++;
+    }
+
+    private ChunkAccess getChunk(int cx, int cz) {
+        if (cx != lastChunkX || cz != lastChunkZ) {
+            lastChunkX = cx;
+            lastChunkZ = cz;
+            lastChunk = world.hasChunk(cx, cz) ? world.getChunk(cx, cz) : null;
+        }
+        return lastChunk;
+    }
+
+    /** @return The number of oil blocks that this has set. */
+    int getPlaced() {
+        return placed;
+    }
+}
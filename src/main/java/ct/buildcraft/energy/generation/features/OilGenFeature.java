@@ -68,7 +68,7 @@ public class OilGenFeature extends Feature<NoneFeatureConfiguration>{
                 int cx = chunkX + cdx;
                 int cz = chunkZ + cdz;
 //                world.getProfiler().startSection("scan");
-                List<OilGenStructure> structures = OilStructureGen.getStructures(world, cx, cz, cdx == 0 && cdz == 0);
+                List<OilGenStructure> structures = OilStructureGen.getStructures(world, cx, cz);
                 OilGenStructure.Spring spring = null;
 //                world.getProfiler().endStartSection("gen");
                 for (OilGenStructure struct : structures) {
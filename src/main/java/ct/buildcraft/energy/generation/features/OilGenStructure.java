@@ -28,6 +28,7 @@ public abstract class OilGenStructure {
     public final Box box;
     public final ReplaceType replaceType;
     protected final static FluidState crudeOil = BCEnergyFluids.crudeOil[0].defaultFluidState();
+    protected final static BlockState crudeOilBlock = crudeOil.createLegacyBlock();
 
     public OilGenStructure(Box containingBox, ReplaceType replaceType) {
         this.box = containingBox;
@@ -44,6 +45,17 @@ public abstract class OilGenStructure {
         }
     }
 
+    /** @return A writer that places oil for this structure, section by section. */
+    protected OilBlockWriter createWriter(WorldGenLevel world) {
+        return new OilBlockWriter(world, replaceType, crudeOilBlock);
+    }
+
+    protected void logPlaced(OilBlockWriter writer, Box intersect) {
+        if (OilStructureGen.DEBUG_OILGEN_ALL) {
+            BCLog.logger.debug("[energy.oilgen] Placed " + writer.getPlaced() + " oil blocks within " + intersect);
+        }
+    }
+
     /** Generates this structure in the world, but only between the given coordinates. */
     protected abstract void generateWithin(WorldGenLevel world, Box intersect);
 
@@ -62,29 +74,38 @@ public abstract class OilGenStructure {
     }
 
     public static void setOil(WorldGenLevel world, BlockPos pos) {
-    	BCLog.logger.debug("OilGenStruecutre:generate oil for "+pos);
-        world.setBlock(pos, crudeOil.createLegacyBlock(), 2);
+        world.setBlock(pos, crudeOilBlock, 2);
         world.scheduleTick(pos, crudeOil.getType(), 0);
     }
 
     public enum ReplaceType {
         ALWAYS {
             @Override
-            public boolean canReplace(WorldGenLevel world, BlockPos pos) {
+            public boolean canReplace(BlockState current) {
                 return true;
             }
         },
         IS_FOR_LAKE {
             @Override
-            public boolean canReplace(WorldGenLevel world, BlockPos pos) {
-                return ALWAYS.canReplace(world, pos);
+            public boolean canReplace(BlockState current) {
+                return ALWAYS.canReplace(current);
             }
         };
-        public abstract boolean canReplace(WorldGenLevel world, BlockPos pos);
+
+        /** @param current The block that is currently in the world, which may have been read straight from a chunk
+         *            section rather than from the world. */
+        public abstract boolean canReplace(BlockState current);
+
+        public boolean canReplace(WorldGenLevel world, BlockPos pos) {
+            return canReplace(world.getBlockState(pos));
+        }
     }
 
     public static class GenByPredicate extends OilGenStructure {
         public final Predicate<BlockPos> predicate;
+        /** Lazily computed, as this has to test every position in the box. Structures are cached and shared between
+         * threads, but every thread will compute the same value. */
+        private volatile int oilCount = -1;
 
         public GenByPredicate(Box containingBox, ReplaceType replaceType, Predicate<BlockPos> predicate) {
             super(containingBox, replaceType);
@@ -93,20 +114,22 @@ public abstract class OilGenStructure {
 
         @Override
         protected void generateWithin(WorldGenLevel world, Box intersect) {
-            for (BlockPos pos : BlockPos.betweenClosed(intersect.min(), intersect.max())) {
-                if (predicate.test(pos)) {
-                    setOilIfCanReplace(world, pos);
-                }
-            }
+            OilBlockWriter writer = createWriter(world);
+            writer.fill(intersect, predicate);
+            logPlaced(writer, intersect);
         }
 
         @Override
         protected int countOilBlocks() {
-            int count = 0;
-            for (BlockPos pos : BlockPos.betweenClosed(box.min(), box.max())) {
-                if (predicate.test(pos)) {
-                    count++;
+            int count = oilCount;
+            if (count < 0) {
+                count = 0;
+                for (BlockPos pos : BlockPos.betweenClosed(box.min(), box.max())) {
+                    if (predicate.test(pos)) {
+                        count++;
+                    }
                 }
+                oilCount = count;
             }
             return count;
         }
@@ -115,11 +138,13 @@ public abstract class OilGenStructure {
     public static class FlatPattern extends OilGenStructure {
         private final boolean[][] pattern;
         private final int depth;
+        private final int oilCount;
 
         private FlatPattern(Box containingBox, ReplaceType replaceType, boolean[][] pattern, int depth) {
             super(containingBox, replaceType);
             this.pattern = pattern;
             this.depth = depth;
+            this.oilCount = countPattern(pattern) * depth;
         }
 
         public static FlatPattern create(BlockPos start, ReplaceType replaceType, boolean[][] pattern, int depth) {
@@ -132,37 +157,27 @@ public abstract class OilGenStructure {
         @Override
         protected void generateWithin(WorldGenLevel world, Box intersect) {
             BlockPos start = box.min();
-            for (BlockPos pos : BlockPos.betweenClosed(intersect.min(), intersect.max())) {
-                int x = pos.getX() - start.getX();
-                int z = pos.getZ() - start.getZ();
-                if (pattern[x][z]) {
-                    setOilIfCanReplace(world, pos);
-                }
-            }
+            OilBlockWriter writer = createWriter(world);
+            writer.fill(intersect, pos -> pattern[pos.getX() - start.getX()][pos.getZ() - start.getZ()]);
+            logPlaced(writer, intersect);
         }
 
         @Override
         protected int countOilBlocks() {
-            int count = 0;
-            for (int x = 0; x < pattern.length; x++) {
-                for (int z = 0; z < pattern[x].length; z++) {
-                    if (pattern[x][z]) {
-                        count++;
-                    }
-                }
-            }
-            return count * depth;
+            return oilCount;
         }
     }
 
     public static class PatternTerrainHeight extends OilGenStructure {
         private final boolean[][] pattern;
         private final int depth;
+        private final int oilCount;
 
         private PatternTerrainHeight(Box containingBox, ReplaceType replaceType, boolean[][] pattern, int depth) {
             super(containingBox, replaceType);
             this.pattern = pattern;
             this.depth = depth;
+            this.oilCount = countPattern(pattern) * depth;
         }
 
         public static PatternTerrainHeight create(BlockPos start, ReplaceType replaceType, boolean[][] pattern,
@@ -175,6 +190,7 @@ public abstract class OilGenStructure {
 
         @Override
         protected void generateWithin(WorldGenLevel world, Box intersect) {
+            OilBlockWriter writer = createWriter(world);
             for (int x = intersect.min().getX(); x <= intersect.max().getX(); x++) {
                 int px = x - box.min().getX();
 
@@ -188,26 +204,32 @@ public abstract class OilGenStructure {
                                 world.setBlock(upper.above(y), Blocks.AIR.defaultBlockState(), Block.UPDATE_CLIENTS);
                             }
                             for (int y = 0; y < depth; y++) {
-                                setOilIfCanReplace(world, upper.below(y));
+                                writer.setOil(upper.below(y));
                             }
                         }
                     }
                 }
             }
+            logPlaced(writer, intersect);
         }
 
         @Override
         protected int countOilBlocks() {
-            int count = 0;
-            for (int x = 0; x < pattern.length; x++) {
-                for (int z = 0; z < pattern[x].length; z++) {
-                    if (pattern[x][z]) {
-                        count++;
-                    }
+            return oilCount;
+        }
+    }
+
+    /** @return The number of set entries in the given pattern. */
+    static int countPattern(boolean[][] pattern) {
+        int count = 0;
+        for (boolean[] row : pattern) {
+            for (boolean set : row) {
+                if (set) {
+                    count++;
                 }
             }
-            return count * depth;
         }
+        return count;
     }
 
     public static class Spout extends OilGenStructure {
@@ -217,7 +239,9 @@ public abstract class OilGenStructure {
         public final BlockPos start;
         public final int radius;
         public final int height;
-        private int count = 0;
+        /** Written by whichever thread generated this last- structures are cached and shared between worldgen
+         * threads, so this is only ever replaced as a whole rather than counted up in place. */
+        private volatile int count = 0;
 
         public Spout(BlockPos start, ReplaceType replaceType, int radius, int height) {
             super(createBox(start), replaceType);
@@ -234,7 +258,7 @@ public abstract class OilGenStructure {
 
         @Override
         protected void generateWithin(WorldGenLevel world, Box intersect) {
-            count = 0;
+            int total = 0;
             int segment = world.getChunk(start).getHighestSectionPosition();
             BlockPos worldTop = new BlockPos(start.getX(), segment + 16, start.getZ());
             for (int y = segment; y >= start.getY(); y--) {
@@ -252,15 +276,16 @@ public abstract class OilGenStructure {
             }
             OilGenStructure tubeY = OilStructureGen.createTube(start, worldTop.getY() - start.getY(), radius, Axis.Y);
             tubeY.generate(world, tubeY.box);
-            count += tubeY.countOilBlocks();
+            total += tubeY.countOilBlocks();
             BlockPos base = worldTop;
             for (int r = radius; r >= 0; r--) {
                 // BCLog.logger.info(" - " + base + " = " + r);
                 OilGenStructure struct = OilStructureGen.createTube(base, height, r, Axis.Y);
                 struct.generate(world, struct.box);
                 base = base.offset(0, height, 0);
-                count += struct.countOilBlocks();
+                total += struct.countOilBlocks();
             }
+            count = total;
         }
 
         @Override
@@ -3,9 +3,11 @@ package ct.buildcraft.energy.generation.features;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -23,7 +25,9 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Holder;
 import net.minecraft.core.Direction.Axis;
 import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.WorldGenLevel;
 import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.Biomes;
@@ -35,10 +39,13 @@ public class OilStructureGen {
     public static final boolean DEBUG_OILGEN_BASIC = true;//BCDebugging.shouldDebugLog("energy.oilgen");
     public static final boolean DEBUG_OILGEN_ALL = true;//BCDebugging.shouldDebugComplex("energy.oilgen");
     
-    private static final LoadingCache<Integer, List<OilGenStructure>> structureCache
-    	= CacheBuilder.newBuilder().expireAfterAccess(20, TimeUnit.SECONDS).build(CacheLoader.from(OilStructureGen::genCache));
-    
-    private static WorldGenLevel level;
+    /** The structures of recently generated chunks, for each level. Every chunk that generates scans the structures of
+     * all of the chunks around it (see {@link OilGenFeature}), so without this each chunk's structures would be
+     * recomputed over a hundred times. The level is held weakly (and compared by identity) so unloaded dimensions can
+     * be collected, and each level gets its own cache (keyed by {@link ChunkPos#asLong(int, int)}) so different
+     * dimensions and seeds never share entries. Both caches are safe to use from the parallel worldgen threads. */
+    private static final LoadingCache<ServerLevel, Cache<Long, List<OilGenStructure>>> structureCache
+        = CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(OilStructureGen::createLevelCache));
 
     private enum GenType {
         LARGE,
@@ -46,17 +53,28 @@ public class OilStructureGen {
         LAKE,
         NONE
     }
-    //TODO change to Lambda
-    private static List<OilGenStructure> genCache(int key){
-    	return getStructures(level, key&0x0000FFFF, key&0xFFFF0000, false);
+    private static Cache<Long, List<OilGenStructure>> createLevelCache(ServerLevel level) {
+        return CacheBuilder.newBuilder()//
+            .concurrencyLevel(Math.max(4, Runtime.getRuntime().availableProcessors()))//
+            .maximumSize(16384)//
+            .expireAfterAccess(20, TimeUnit.SECONDS)//
+            .build();
     }
-    
+
+    /** @return The (cached) structures that the given chunk generates. The returned list is immutable, and the
+     *         structures in it may be generated by multiple threads at once. */
     public static List<OilGenStructure> getStructures(WorldGenLevel world, int cx, int cz) {
-    	if(level != world) level = world;
-    	return structureCache.getUnchecked(cz<<16|cx);
+        Cache<Long, List<OilGenStructure>> cache = structureCache.getUnchecked(world.getLevel());
+        try {
+            // Only one thread computes a missing chunk: any others asking for it at the same time wait for the result
+            return cache.get(ChunkPos.asLong(cx, cz), () -> getStructures(world, cx, cz, true));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to compute the oil structures for chunk " + cx + ", " + cz, e);
+        }
     }
 
-    /*this will not use the cache, only use for testing*/
+    /** Computes the structures for a chunk without using the cache. The result only depends on the seed, the chunk
+     * position and the biome, so it's the same no matter which region it's computed from. */
     protected static List<OilGenStructure> getStructures(WorldGenLevel world, int cx, int cz, boolean log) {
         RandomSource rand = RandUtil.createRandomForChunk(world, cx, cz, MAGIC_GEN_NUMBER);
 
@@ -190,7 +208,7 @@ public class OilStructureGen {
                 }
             }
         }
-        return structures;
+        return ImmutableList.copyOf(structures);
     }
 
     private static String toStr(WorldGenLevel world) {
@@ -69,7 +69,7 @@ public class BlockDistiller extends BlockBCTile_Neptune implements EntityBlock,
 			BlockEntityType<T> bet) {
 		return bet == BCFactoryBlocks.ENTITYBLOCKDISTILLER.get() ? ($0,pos,$1,BlockEntity) -> {
 			if(BlockEntity instanceof TileDistiller) {
-				((TileDistiller) BlockEntity).update();
+				((TileDistiller) BlockEntity).updateIfAwake();
 			}
 		} : null;
 	}
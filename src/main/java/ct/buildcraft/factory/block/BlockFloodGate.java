@@ -79,7 +79,7 @@ public class BlockFloodGate extends Block implements EntityBlock{
 			BlockEntityType<T> bet) {
 		return bet == BCFactoryBlocks.ENTITYBLOCKFLOODGATE.get() ? ($0,pos,$1,BlockEntity) -> {
 			if(BlockEntity instanceof TileFloodGate) {
-				((TileFloodGate) BlockEntity).update();
+				((TileFloodGate) BlockEntity).updateIfAwake();
 			}
 		} : null;
 
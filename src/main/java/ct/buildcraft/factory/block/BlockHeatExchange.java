@@ -174,7 +174,7 @@ public class BlockHeatExchange extends BlockBCTile_Neptune implements ICustomPip
 			BlockEntityType<T> bet) {
 		return bet == BCFactoryBlocks.ENTITYBLOCKHEATEXCHANGE.get() ? ($0,pos,$1,BlockEntity) -> {
 			if(BlockEntity instanceof TileHeatExchange) {
-				((TileHeatExchange) BlockEntity).update();
+				((TileHeatExchange) BlockEntity).updateIfAwake();
 			}
 		} : null;
 	}
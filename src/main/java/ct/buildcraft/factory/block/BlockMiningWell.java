@@ -60,7 +60,7 @@ public class BlockMiningWell extends BlockBCTile_Neptune implements IBlockWithFa
 			BlockEntityType<T> bet) {
 		return (bet == BCFactoryBlocks.ENTITYBLOCKMININGWELL.get()) ? ($0,pos,$1,BlockEntity) -> {
 			if(BlockEntity instanceof TileMiningWell be)
-				be.update();
+				be.updateIfAwake();
 		} : null;
 	}
 
@@ -31,7 +31,7 @@ public class BlockPump extends BlockBCTile_Neptune implements EntityBlock {
 			BlockEntityType<T> bet) {
 		return bet == BCFactoryBlocks.ENTITYBLOCKPUMP.get() ? ($0, pos, $1, tile) -> {
 			if(tile instanceof TilePump be)
-				be.update();
+				be.updateIfAwake();
 		} : null;
 	}
 
@@ -120,7 +120,7 @@ public class BlockTank extends BlockBCTile_Neptune implements ICustomPipeConnect
 			BlockEntityType<T> bet) {
 		return bet == BCFactoryBlocks.ENTITYBLOCKTANK.get() ? ($0,pos,$1,BlockEntity) -> {
 			if(BlockEntity instanceof TileTank) {
-				((TileTank) BlockEntity).update();
+				((TileTank) BlockEntity).updateIfAwake();
 			}
 		} : null;
 	}
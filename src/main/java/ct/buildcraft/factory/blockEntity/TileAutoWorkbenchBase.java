@@ -77,6 +77,7 @@ public abstract class TileAutoWorkbenchBase extends TileBC_Neptune
         invMaterialFilter = itemManager.addInvHandler("material_filter", slots, EnumAccess.PHANTOM);
         invMaterials = new ItemHandlerFiltered(invMaterialFilter, true);
         invMaterials.setCallback(itemManager.callback);
+        invMaterials.enableSlotIndex();
         itemManager.addInvHandler("materials", invMaterials, EnumAccess.INSERT, EnumPipePart.VALUES);
         invResult = itemManager.addInvHandler("result", 1, EnumAccess.EXTRACT, EnumPipePart.VALUES);
         crafting = new WorkbenchCrafting(width, height, this, invBlueprint, invMaterials, invResult);
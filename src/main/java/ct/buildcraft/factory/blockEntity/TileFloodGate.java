@@ -7,19 +7,13 @@
 package ct.buildcraft.factory.blockEntity;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.ArrayList;
 import java.util.BitSet;
-import java.util.Deque;
 import java.util.EnumSet;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import com.google.common.collect.ImmutableList;
+import javax.annotation.Nullable;
 
 import ct.buildcraft.api.core.EnumPipePart;
 import ct.buildcraft.api.items.FluidItemDrops;
@@ -32,6 +26,9 @@ import ct.buildcraft.lib.misc.CapUtil;
 import ct.buildcraft.lib.misc.FluidUtilBC;
 import ct.buildcraft.lib.misc.MessageUtil;
 import ct.buildcraft.lib.tile.TileBC_Neptune;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.NonNullList;
@@ -68,10 +65,26 @@ public class TileFloodGate extends TileBC_Neptune implements IDebuggable {
 
     private static final int[] REBUILD_DELAYS = { 16, 32, 64, 128, 256 };
 
+    /** The maximum number of positions that will be queued up to be filled at once. */
+    private static final int MAX_QUEUE_SIZE = 4096;
+
+    /** The maximum number of positions that the search will look at in a single tick. */
+    private static final int MAX_SEARCH_PER_TICK = 1024;
+
     private final Tank tank = new Tank("tank", 2 * FluidType.BUCKET_VOLUME, this);
     public final Set<Direction> openLogicalSides = EnumSet.copyOf(BlockFloodGate.CONNECTED_MAP.keySet());
-    public final Deque<BlockPos> queue = new ArrayDeque<>();
-    private final Map<BlockPos, List<BlockPos>> paths = new HashMap<>();
+    /** Every position that can be filled, in the order that they were found. Stored as {@link BlockPos#asLong()}. */
+    private final LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+    /** Map of [position] -> [position it was reached from]. The positions next to the flood gate map to themselves,
+     * so the full path for a position can be found by following the parents until that happens. */
+    private final Long2LongOpenHashMap paths = new Long2LongOpenHashMap();
+    /** Every position that the search has already looked at. */
+    private final LongOpenHashSet checked = new LongOpenHashSet();
+    /** The positions that the search still needs to look at. This is only empty once the whole area has been searched
+     * (or the search hasn't been started), so the search can be continued later on once {@link #queue} runs low. */
+    private final LongArrayFIFOQueue searchFrontier = new LongArrayFIFOQueue();
+    @Nullable
+    private Vec3i[] searchDirections;
     private int delayIndex = 0;
     private int tick = 0;
 
@@ -86,57 +99,82 @@ public class TileFloodGate extends TileBC_Neptune implements IDebuggable {
         return REBUILD_DELAYS[delayIndex];
     }
 
+    /** Clears the current queue and starts a new search from the open sides of the flood gate. The search itself is
+     * done over the next few ticks by {@link #continueSearch()}. */
     private void buildQueue() {
-//        level.profiler.startSection("prepare");
         queue.clear();
         paths.clear();
+        checked.clear();
+        searchFrontier.clear();
+        searchDirections = null;
         FluidStack fluid = tank.getFluid();
         if (fluid == null || fluid.getAmount() <= 0) {
-//            level.profiler.endSection();
             return;
         }
-        Set<BlockPos> checked = new HashSet<>();
-        checked.add(worldPosition);
-        List<BlockPos> nextPosesToCheck = new ArrayList<>();
+        checked.add(worldPosition.asLong());
         for (Direction face : openLogicalSides) {
-            BlockPos offset = worldPosition.offset(face.getNormal());
-            nextPosesToCheck.add(offset);
-            paths.put(offset, ImmutableList.of(offset));
+            long offset = worldPosition.relative(face).asLong();
+            searchFrontier.enqueue(offset);
+            paths.put(offset, offset);
         }
-        Vec3i[] directions = fluid.getFluid().getFluidType().isLighterThanAir() ? SEARCH_GASEOUS : SEARCH_NORMAL;
-//        level.profiler.endStartSection("build");
-        outer: while (!nextPosesToCheck.isEmpty()) {
-            List<BlockPos> nextPosesToCheckCopy = new ArrayList<>(nextPosesToCheck);
-            nextPosesToCheck.clear();
-            for (BlockPos toCheck : nextPosesToCheckCopy) {
-                if (toCheck.distSqr(worldPosition) > 64 * 64) {
+        searchDirections = fluid.getFluid().getFluidType().isLighterThanAir() ? SEARCH_GASEOUS : SEARCH_NORMAL;
+        continueSearch();
+    }
+
+    /** Continues the breadth-first search started by {@link #buildQueue()}, until either {@link #queue} is full or
+     * {@link #MAX_SEARCH_PER_TICK} positions have been looked at. */
+    private void continueSearch() {
+        if (searchDirections == null) {
+            return;
+        }
+        BlockPos.MutableBlockPos toCheck = new BlockPos.MutableBlockPos();
+        int searched = 0;
+        while (!searchFrontier.isEmpty() && queue.size() < MAX_QUEUE_SIZE && searched < MAX_SEARCH_PER_TICK) {
+            long packed = searchFrontier.dequeueLong();
+            if (!checked.add(packed)) {
+                continue;
+            }
+            toCheck.set(packed);
+            if (toCheck.distSqr(worldPosition) > 64 * 64) {
+                continue;
+            }
+            searched++;
+            if (!canSearch(toCheck)) {
+                continue;
+            }
+            if (canFill(toCheck)) {
+                queue.enqueue(packed);
+            }
+            for (Vec3i side : searchDirections) {
+                long next = BlockPos.offset(packed, side.getX(), side.getY(), side.getZ());
+                if (checked.contains(next)) {
                     continue;
                 }
-                if (checked.add(toCheck)) {
-                    if (canSearch(toCheck)) {
-                        if (canFill(toCheck)) {
-                            queue.push(toCheck);
-                            if (queue.size() >= 4096) {
-                                break outer;
-                            }
-                        }
-                        List<BlockPos> checkPath = paths.get(toCheck);
-                        for (Vec3i side : directions) {
-                            BlockPos next = toCheck.offset(side);
-                            if (checked.contains(next)) {
-                                continue;
-                            }
-                            ImmutableList.Builder<BlockPos> pathBuilder = ImmutableList.builder();
-                            pathBuilder.addAll(checkPath);
-                            pathBuilder.add(next);
-                            paths.put(next, pathBuilder.build());
-                            nextPosesToCheck.add(next);
-                        }
-                    }
+                // Only the first path to a position is kept, as that is the shortest
+                if (!paths.containsKey(next)) {
+                    paths.put(next, packed);
                 }
+                searchFrontier.enqueue(next);
+            }
+        }
+    }
+
+    /** @return True if every position on the path to the given position (apart from the position itself) is full of
+     *         the fluid in the tank. */
+    private boolean canFillThroughPath(long pos) {
+        if (!paths.containsKey(pos)) {
+            return true;
+        }
+        BlockPos.MutableBlockPos node = new BlockPos.MutableBlockPos();
+        long parent = paths.get(pos);
+        while (parent != pos) {
+            pos = parent;
+            if (!canFillThrough(node.set(pos))) {
+                return false;
             }
+            parent = paths.get(pos);
         }
-//        level.profiler.endSection();
+        return true;
     }
 
     private boolean canFill(BlockPos offsetPos) {
@@ -181,20 +219,9 @@ public class TileFloodGate extends TileBC_Neptune implements IDebuggable {
             if (!tank.isEmpty() && !queue.isEmpty()) {
                 FluidStack fluid = tank.drain(FluidType.BUCKET_VOLUME, FluidAction.SIMULATE);
                 if (fluid != null && fluid.getAmount() >= FluidType.BUCKET_VOLUME) {
-                    BlockPos currentPos = queue.removeLast();
-                    List<BlockPos> path = paths.get(currentPos);
-                    boolean canFill = true;
-                    if (path != null) {
-                        for (BlockPos p : path) {
-                            if (p.equals(currentPos)) {
-                                continue;
-                            }
-                            if (!canFillThrough(currentPos)) {
-                                canFill = false;
-                                break;
-                            }
-                        }
-                    }
+                    long currentPacked = queue.dequeueLong();
+                    BlockPos currentPos = BlockPos.of(currentPacked);
+                    boolean canFill = canFillThroughPath(currentPacked);
                     if (canFill && canFill(currentPos)) {
 //                        FakePlayer fakePlayer =
 //                            BuildCraftAPI.fakePlayerProvider.getFakePlayer((WorldServer) level, getOwner(), currentPos);
@@ -214,7 +241,10 @@ public class TileFloodGate extends TileBC_Neptune implements IDebuggable {
             }
         }
 
-        if (queue.isEmpty() && tick >= getCurrentDelay()) {
+        if (!searchFrontier.isEmpty() && queue.size() < MAX_QUEUE_SIZE) {
+            // Keep the queue topped up, rather than searching everything again once it runs out
+            continueSearch();
+        } else if (queue.isEmpty() && tick >= getCurrentDelay()) {
             delayIndex = Math.min(delayIndex + 1, REBUILD_DELAYS.length - 1);
             tick = 0;
             buildQueue();
@@ -306,5 +336,6 @@ public class TileFloodGate extends TileBC_Neptune implements IDebuggable {
         left.add("delay = " + getCurrentDelay());
         left.add("tick = " + tick);
         left.add("queue size = " + queue.size());
+        left.add("search frontier = " + searchFrontier.size());
     }
 }
@@ -7,15 +7,12 @@
 package ct.buildcraft.factory.blockEntity;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javax.annotation.Nullable;
 
 import ct.buildcraft.api.BCModules;
@@ -37,7 +34,12 @@ import ct.buildcraft.lib.misc.BlockUtil;
 import ct.buildcraft.lib.misc.CapUtil;
 import ct.buildcraft.lib.misc.FluidUtilBC;
 import ct.buildcraft.lib.misc.VecUtil;
+import ct.buildcraft.lib.misc.data.ChunkSectionSnapshot;
 import ct.buildcraft.lib.mj.MjRedstoneBatteryReceiver;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.Util;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.core.NonNullList;
@@ -69,19 +71,90 @@ public class TilePump extends TileMiner {
         Direction.WEST, Direction.EAST //
     };
 
-    static final class FluidPath {
-        public final BlockPos thisPos;
-
-        @Nullable
-        public final FluidPath parent;
-
-        public FluidPath(BlockPos thisPos, FluidPath parent) {
-            this.thisPos = thisPos;
-            this.parent = parent;
+    /** A breadth-first search for every fluid block connected to the pump, run on a background thread against a
+     * {@link ChunkSectionSnapshot} so that large lakes don't hold up the server tick. Positions are stored as
+     * {@link BlockPos#asLong()} so that the search doesn't allocate anything per block. */
+    static final class QueueSearch {
+        private final ChunkSectionSnapshot snapshot;
+        private final long root;
+        private final boolean rootIsSource;
+        private final Fluid fluid;
+        private final Direction[] directions;
+        private final boolean isWater;
+        private final int maxLengthSquared;
+
+        /** Map of [position] -> [position it was reached from]. The root maps to itself. */
+        final Long2LongOpenHashMap paths = new Long2LongOpenHashMap();
+        /** Every source block found, in the order that they were found. */
+        final LongArrayList queue = new LongArrayList();
+        boolean isInfiniteWaterSource;
+
+        QueueSearch(ChunkSectionSnapshot snapshot, BlockPos root, boolean rootIsSource, Fluid fluid) {
+            this.snapshot = snapshot;
+            this.root = root.asLong();
+            this.rootIsSource = rootIsSource;
+            this.fluid = fluid;
+            this.directions = fluid.getFluidType().isLighterThanAir() ? SEARCH_GASEOUS : SEARCH_NORMAL;
+            this.isWater = !BCCoreConfig.pumpsConsumeWater && FluidUtilBC.areFluidsEqual(fluid, Fluids.WATER);
+            this.maxLengthSquared = BCCoreConfig.pumpMaxDistance * BCCoreConfig.pumpMaxDistance;
         }
 
-        public FluidPath and(BlockPos pos) {
-            return new FluidPath(pos, this);
+        QueueSearch run() {
+            LongOpenHashSet checked = new LongOpenHashSet();
+            LongArrayList toCheck = new LongArrayList();
+            LongArrayList nextToCheck = new LongArrayList();
+            paths.put(root, root);
+            checked.add(root);
+            if (rootIsSource) {
+                queue.add(root);
+            }
+            toCheck.add(root);
+            int rootX = BlockPos.getX(root);
+            int rootY = BlockPos.getY(root);
+            int rootZ = BlockPos.getZ(root);
+            outer: while (!toCheck.isEmpty()) {
+                for (int i = 0; i < toCheck.size(); i++) {
+                    long posToCheck = toCheck.getLong(i);
+                    int count = 0;
+                    for (Direction side : directions) {
+                        long offsetPos = BlockPos.offset(posToCheck, side);
+                        int dx = BlockPos.getX(offsetPos) - rootX;
+                        int dy = BlockPos.getY(offsetPos) - rootY;
+                        int dz = BlockPos.getZ(offsetPos) - rootZ;
+                        if (dx * dx + dy * dy + dz * dz > maxLengthSquared) {
+                            continue;
+                        }
+                        if (!checked.add(offsetPos)) {
+                            continue;
+                        }
+                        FluidState fluidsAt = snapshot.getFluidState(offsetPos);
+                        if (fluidsAt.getFluidType() == fluid.getFluidType()) {
+                            paths.put(offsetPos, posToCheck);
+                            if (fluidsAt.isSource()) {
+                                queue.add(offsetPos);
+                                count++;
+                            }
+                            nextToCheck.add(offsetPos);
+                        }
+                    }
+                    if (isWater && count >= 2) {
+                        BlockState below = snapshot.getBlockState(BlockPos.offset(posToCheck, Direction.DOWN));
+                        // Same check as in BlockDynamicLiquid.updateTick:
+                        // if that method changes how it checks for adjacent
+                        // water sources then this also needs updating
+                        Fluid fluidBelow = BlockUtil.getFluidWithoutFlowing(below);
+                        if (FluidUtilBC.areFluidsEqual(fluidBelow, Fluids.WATER) || below.getMaterial().isSolid()) {
+                            isInfiniteWaterSource = true;
+                            break outer;
+                        }
+                    }
+                }
+                LongArrayList swap = toCheck;
+                toCheck = nextToCheck;
+                nextToCheck = swap;
+                nextToCheck.clear();
+            }
+            return this;
         }
     }
 
@@ -93,17 +166,24 @@ public class TilePump extends TileMiner {
 
     private final Tank tank = new Tank("tank", 16 * /*Fluids.BUCKET_VOLUME*/1000, this);
     private boolean queueBuilt = false;
-    private final Map<BlockPos, FluidPath> paths = new HashMap<>();
+    /** See {@link QueueSearch#paths}. */
+    private Long2LongOpenHashMap paths = new Long2LongOpenHashMap();
     private BlockPos fluidConnection;
-    private final Deque<BlockPos> queue = new ArrayDeque<>();
+    private LongArrayList queue = new LongArrayList();
     private boolean isInfiniteWaterSource;
     private final SafeTimeTracker rebuildDelay = new SafeTimeTracker(30);
 
+    /** The search that will replace {@link #queue} and {@link #paths} once it has finished. */
+    @Nullable
+    private CompletableFuture<QueueSearch> pendingSearch;
+
     /** The position just below the bottom of the pump tube. */
     private BlockPos targetPos;
 
     @Nullable
     private BlockPos oilSpringPos;
+    /** True if we have already looked for an oil spring, so we don't need to look again unless the spring goes away. */
+    private boolean oilSpringSearched = false;
 
 //	protected TankManager tankManager = new TankManager();
 
@@ -119,13 +199,14 @@ public class TilePump extends TileMiner {
         return new MjRedstoneBatteryReceiver(battery);
     }
 
+    /** Starts searching for fluid blocks on a background thread, unless a search is already running. The current queue
+     * is kept (and drained) until {@link #applyFinishedSearch()} replaces it. */
     private void buildQueue() {
-        queue.clear();
-        paths.clear();
+        if (pendingSearch != null) {
+            return;
+        }
         Fluid queueFluid = Fluids.EMPTY;
-        isInfiniteWaterSource = false;
-        Set<BlockPos> checked = new HashSet<>();
-        List<BlockPos> nextPosesToCheck = new ArrayList<>();
+        boolean rootIsSource = false;
         for (targetPos = worldPosition.below(); !level.isOutsideBuildHeight(targetPos); targetPos = targetPos.below()) {
             if (worldPosition.getY() - targetPos.getY() > BCCoreConfig.miningMaxDepth) {
                 break;
@@ -133,12 +214,7 @@ public class TilePump extends TileMiner {
             Fluid t = BlockUtil.getFluidWithFluidState(level, targetPos);
             if (t != Fluids.EMPTY) {
                 queueFluid = t;
-                nextPosesToCheck.add(targetPos);
-                paths.put(targetPos, new FluidPath(targetPos, null));
-                checked.add(targetPos);
-                if (BlockUtil.getFluid(level, targetPos) != Fluids.EMPTY) {
-                    queue.add(targetPos);
-                }
+                rootIsSource = BlockUtil.getFluid(level, targetPos) != Fluids.EMPTY;
                 fluidConnection = targetPos;
                 break;
             }
@@ -146,91 +222,77 @@ public class TilePump extends TileMiner {
                 break;
             }
         }
-        if (nextPosesToCheck.isEmpty() || queueFluid == Fluids.EMPTY) {
+        if (queueFluid == Fluids.EMPTY) {
+            queue.clear();
+            paths.clear();
+            isInfiniteWaterSource = false;
             return;
         }
+        if (isOil(queueFluid)) {
+            findOilSpring();
+        }
 
-//        Stopwatch watch = Stopwatch.createStarted();
-        buildQueue0(queueFluid, nextPosesToCheck, checked);
-//        watch.stop();
+        // Normal fluids are only searched upwards (and gases downwards), plus one block below for the water check
+        int maxDistance = BCCoreConfig.pumpMaxDistance;
+        boolean gaseous = queueFluid.getFluidType().isLighterThanAir();
+        BlockPos min = targetPos.offset(-maxDistance, gaseous ? -maxDistance : -1, -maxDistance);
+        BlockPos max = targetPos.offset(maxDistance, gaseous ? 0 : maxDistance, maxDistance);
+        ChunkSectionSnapshot snapshot = ChunkSectionSnapshot.capture(level, min, max);
+        QueueSearch search = new QueueSearch(snapshot, targetPos, rootIsSource, queueFluid);
+        pendingSearch = CompletableFuture.supplyAsync(search::run, Util.backgroundExecutor());
     }
 
-    private void buildQueue0(Fluid queueFluid, List<BlockPos> nextPosesToCheck, Set<BlockPos> checked) {
-        Direction[] directions = queueFluid.getFluidType().isLighterThanAir() ? SEARCH_GASEOUS : SEARCH_NORMAL;
-        boolean isWater
-            = !BCCoreConfig.pumpsConsumeWater && FluidUtilBC.areFluidsEqual(queueFluid, Fluids.WATER);
-        final int maxLengthSquared = BCCoreConfig.pumpMaxDistance * BCCoreConfig.pumpMaxDistance;
-        List<BlockPos> nextPosesToCheckCopy = new ArrayList<>();
-        outer: while (!nextPosesToCheck.isEmpty()) {
-        	nextPosesToCheckCopy.clear();
-            nextPosesToCheckCopy.addAll(nextPosesToCheck);
-            nextPosesToCheck.clear();
-            for (BlockPos posToCheck : nextPosesToCheckCopy) {
-                int count = 0;
-                for (Direction side : directions) {
-                    BlockPos offsetPos = posToCheck.offset(side.getNormal());
-                    if (offsetPos.distSqr(targetPos) > maxLengthSquared) {
-                        continue;
-                    }
-                    boolean isNew = checked.add(offsetPos);
-                    if (isNew) {
-                    	FluidState fluidsAt = level.getFluidState(offsetPos);
-                        boolean eq = fluidsAt.getFluidType() == queueFluid.getFluidType();
-                        if (eq) {
-                            FluidPath oldPath = paths.get(posToCheck);
-                            FluidPath path = new FluidPath(offsetPos, oldPath);
-                            paths.put(offsetPos, path);
-                            if (fluidsAt.isSource()) {
-                                queue.add(offsetPos);
-                                count++;
-                            }
-                            nextPosesToCheck.add(offsetPos);
-                            
-                        }
-                    }/* else {
-                        // We've already tested this block: it *must* be a valid water source
-                        count++;
-                    }*/
-                }
-                if (isWater) {
-                    if (count >= 2) {
-                        BlockState below = level.getBlockState(posToCheck.below());
-                        // Same check as in BlockDynamicLiquid.updateTick:
-                        // if that method changes how it checks for adjacent
-                        // water sources then this also needs updating
-                        Fluid fluidBelow = BlockUtil.getFluidWithoutFlowing(below);
-                        if (
-                            FluidUtilBC.areFluidsEqual(fluidBelow, Fluids.WATER) || below.getMaterial().isSolid()
-                        ) {
-                            isInfiniteWaterSource = true;
-                            break outer;
-                        }
-                    }
-                }
+    /** Replaces the queue with the result of {@link #pendingSearch}, if it has finished. */
+    private void applyFinishedSearch() {
+        if (pendingSearch == null || !pendingSearch.isDone()) {
+            return;
+        }
+        CompletableFuture<QueueSearch> search = pendingSearch;
+        pendingSearch = null;
+        QueueSearch result;
+        try {
+            result = search.join();
+        } catch (CompletionException | CancellationException e) {
+            BCLog.logger.warn("[factory.pump] Pump @ " + getBlockPos() + " failed to search for fluid!", e);
+            return;
+        }
+        queue = result.queue;
+        paths = result.paths;
+        isInfiniteWaterSource = result.isInfiniteWaterSource;
+        nextPos();
+    }
+
+    private void findOilSpring() {
+        if (oilSpringPos != null) {
+            if (level.getBlockEntity(oilSpringPos) instanceof ITileOilSpring) {
+                return;
             }
+            oilSpringPos = null;
+            oilSpringSearched = false;
         }
-        if (isOil(queueFluid)) {
-            List<BlockPos> springPositions = new ArrayList<>();
-            BlockPos center = VecUtil.replaceValue(getBlockPos(), Axis.Y, 0);
-            for (BlockPos spring : BlockPos.betweenClosed(center.offset(-10, 0, -10), center.offset(10, 0, 10))) {
-                if (level.getBlockState(spring).getBlock() == BCCoreBlocks.SPRING.get()) {
-                    BlockEntity tile = level.getBlockEntity(spring);
-                    if (tile instanceof ITileOilSpring) {
-                        springPositions.add(spring);
-                    }
+        if (oilSpringSearched) {
+            return;
+        }
+        oilSpringSearched = true;
+        List<BlockPos> springPositions = new ArrayList<>();
+        BlockPos center = VecUtil.replaceValue(getBlockPos(), Axis.Y, 0);
+        for (BlockPos spring : BlockPos.betweenClosed(center.offset(-10, 0, -10), center.offset(10, 0, 10))) {
+            if (level.getBlockState(spring).getBlock() == BCCoreBlocks.SPRING.get()) {
+                BlockEntity tile = level.getBlockEntity(spring);
+                if (tile instanceof ITileOilSpring) {
+                    springPositions.add(spring.immutable());
                 }
             }
-            switch (springPositions.size()) {
-                case 0:
-                    break;
-                case 1:
-                    oilSpringPos = springPositions.get(0);
-                    break;
-                default:
-                    springPositions.sort(Comparator.comparingDouble(worldPosition::distSqr));
-                    oilSpringPos = springPositions.get(0);
-            }
-
+        }
+        switch (springPositions.size()) {
+            case 0:
+                break;
+            case 1:
+                oilSpringPos = springPositions.get(0);
+                break;
+            default:
+                springPositions.sort(Comparator.comparingDouble(worldPosition::distSqr));
+                oilSpringPos = springPositions.get(0);
         }
     }
 
@@ -248,7 +310,7 @@ public class TilePump extends TileMiner {
 
     private void nextPos() {
         while (!queue.isEmpty()) {
-            currentPos = queue.removeLast();
+            currentPos = BlockPos.of(queue.removeLong(queue.size() - 1));
             if (canDrain(currentPos)) {
                 updateLength();
                 return;
@@ -269,9 +331,12 @@ public class TilePump extends TileMiner {
 
     @Override
     public void update() {
-        if (!queueBuilt && !level.isClientSide) {
-            buildQueue();
-            queueBuilt = true;
+        if (!level.isClientSide) {
+            if (!queueBuilt) {
+                buildQueue();
+                queueBuilt = true;
+            }
+            applyFinishedSearch();
         }
 
         super.update();
@@ -289,7 +354,7 @@ public class TilePump extends TileMiner {
 //        BCLog.logger.debug(""+currentPos);
 
         long target = 10 * MjAPI.MJ;
-        if (currentPos != null && paths.containsKey(currentPos)) {
+        if (currentPos != null && paths.containsKey(currentPos.asLong())) {
             progress += battery.extractPower(0, target - progress);
             if (progress < target) {
                 return;
@@ -300,7 +365,7 @@ public class TilePump extends TileMiner {
             drain_attempt: {
 
                 if (drain == FluidStack.EMPTY) {
-                    if (true) {
+                    if (DEBUG_PUMP) {
                         BCLog.logger.info(
                             "Pump @ " + getBlockPos() + " tried to drain " + currentPos
                                 + " but couldn't because no fluid was drained!"
@@ -311,7 +376,7 @@ public class TilePump extends TileMiner {
 
                 BlockPos invalid = getFirstInvalidPointOnPath(currentPos);
                 if (invalid != null) {
-                    if (true) {
+                    if (DEBUG_PUMP) {
                         BCLog.logger.info(
                             "Pump @ " + getBlockPos() + " tried to drain " + currentPos
                                 + " but couldn't because the path stopped at " + invalid + "!"
@@ -319,7 +384,7 @@ public class TilePump extends TileMiner {
                     }
                     break drain_attempt;
                 } else if (!canDrain(currentPos)) {
-                    if (true) {
+                    if (DEBUG_PUMP) {
                         BCLog.logger.info(
                             "Pump @ " + getBlockPos() + " tried to drain " + currentPos
                                 + " but couldn't because it couldn't be drained!"
@@ -345,14 +410,15 @@ public class TilePump extends TileMiner {
                             }
                         }
                     }
-                    paths.remove(currentPos);
                     nextPos();
                 }
                 return;
             }
-            if (!rebuildDelay.markTimeIfDelay(level)) {
-                return;
+            // Skip this block rather than waiting for the whole queue to be rebuilt
+            if (rebuildDelay.markTimeIfDelay(level)) {
+                buildQueue();
             }
+            nextPos();
         } else {
             if (currentPos == null && !rebuildDelay.markTimeIfDelay(level)) {
                 return;
@@ -367,9 +433,11 @@ public class TilePump extends TileMiner {
                     );
                 }
             }
+            buildQueue();
+            if (pendingSearch == null) {
+                nextPos();
+            }
         }
-        buildQueue();
-        nextPos();
     }
     
     public Fluid getFluidInTank() {
@@ -378,16 +446,22 @@ public class TilePump extends TileMiner {
 
     @Nullable
     private BlockPos getFirstInvalidPointOnPath(BlockPos from) {
-        FluidPath path = paths.get(from);
-        if (path == null) {
+        long pos = from.asLong();
+        if (!paths.containsKey(pos)) {
             return from;
         }
-        do {
-            if (BlockUtil.getFluidWithFluidState(level, path.thisPos) == Fluids.EMPTY) {
-                return path.thisPos;
+        BlockPos.MutableBlockPos mutable = new BlockPos.MutableBlockPos();
+        while (true) {
+            mutable.set(pos);
+            if (BlockUtil.getFluidWithFluidState(level, mutable) == Fluids.EMPTY) {
+                return mutable.immutable();
             }
-        } while ((path = path.parent) != null);
-        return null;
+            long parent = paths.get(pos);
+            if (parent == pos) {
+                return null;
+            }
+            pos = parent;
+        }
     }
     
 	@Override
@@ -411,7 +485,7 @@ public class TilePump extends TileMiner {
 	@Override
 	public void load(CompoundTag nbt) {
 		super.load(nbt);
-		oilSpringPos = BlockPos.of(nbt.getLong("oilSpringPos"));//nbt.get("oilSpringPos"));
+		oilSpringPos = nbt.contains("oilSpringPos") ? BlockPos.of(nbt.getLong("oilSpringPos")) : null;
         tank.readFromNBT(nbt.getCompound("tank"));
 	}
 
@@ -447,6 +521,7 @@ public class TilePump extends TileMiner {
         left.add("fluid = " + tank.getDebugString());
         left.add("queue size = " + queue.size());
         left.add("infinite = " + isInfiniteWaterSource);
+        left.add("searching = " + (pendingSearch != null));
     }
 
     @Override
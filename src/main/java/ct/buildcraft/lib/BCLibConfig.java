@@ -78,6 +78,11 @@ public class BCLibConfig {
     /** The maximum number of items that the guide book will index. */
     public static int guideItemSearchLimit = 10_000;
 
+    /** The minimum number of ticks between a tile marking its chunk as needing to be saved with
+     * {@link ct.buildcraft.lib.tile.TileBC_Neptune#scheduleChunkDirty()}. Changes made in between are only saved once the interval has
+     * passed. */
+    public static int minChunkDirtyInterval = 20;
+
     public static final List<Runnable> configChangeListeners = new ArrayList<>();
 
     /** Resets cached values across various BCLib classes that rely on these config options. */
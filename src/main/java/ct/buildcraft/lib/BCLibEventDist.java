@@ -32,6 +32,7 @@ import net.minecraftforge.event.TickEvent.Phase;
 import net.minecraftforge.event.TickEvent.ServerTickEvent;
 import net.minecraftforge.event.entity.EntityJoinLevelEvent;
 import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.EventPriority;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
@@ -142,9 +143,15 @@ public class BCLibEventDist {
         if (event.phase == Phase.END) {
 //            BCAdvDebugging.INSTANCE.onServerPostTick();
             MessageUtil.postServerTick();
+            BuildCraftObjectCaches.onServerTick();
         }
     }
 
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        BuildCraftObjectCaches.onServerStopped();
+    }
+
     @SubscribeEvent
     @OnlyIn(Dist.CLIENT)
     public static void clientTick(ClientTickEvent event) {
@@ -117,7 +117,7 @@ public abstract class BlockBCTile_Neptune extends BlockBCBase_Neptune implements
 			BlockEntityType<T> bet) {
 		return (a,b,c,blockEntity) -> {
 			if(blockEntity instanceof TileBC_Neptune tile) {
-				tile.update();
+				tile.updateIfAwake();
 			}
 		};
 	}
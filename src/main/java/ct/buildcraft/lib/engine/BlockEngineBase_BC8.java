@@ -81,7 +81,7 @@ public abstract class BlockEngineBase_BC8<E extends Enum<E> & IEngineType & Stri
 			BlockEntityType<T> bet) {
 		return ($0,pos,$1,BlockEntity) -> {
 			if(BlockEntity instanceof TileEngineBase_BC8) {
-				((TileEngineBase_BC8) BlockEntity).update();
+				((TileEngineBase_BC8) BlockEntity).updateIfAwake();
 			}
 		};
 	}
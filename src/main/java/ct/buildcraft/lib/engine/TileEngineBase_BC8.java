@@ -17,6 +17,7 @@ import ct.buildcraft.api.mj.IMjConnector;
 import ct.buildcraft.api.mj.IMjReceiver;
 import ct.buildcraft.api.mj.MjAPI;
 import ct.buildcraft.api.mj.MjCapabilityHelper;
+import ct.buildcraft.api.mj.MjReceiverHandle;
 import ct.buildcraft.api.tiles.IDebuggable;
 import ct.buildcraft.core.client.model.ModelEngine;
 import ct.buildcraft.lib.block.VanillaRotationHandlers;
@@ -59,6 +60,8 @@ public abstract class TileEngineBase_BC8 extends TileBC_Neptune implements IDebu
     @Nonnull
     public final IMjConnector mjConnector = createConnector();
     private final MjCapabilityHelper mjCaps = new MjCapabilityHelper(mjConnector);
+    /** The receiver directly in front of this engine, so that it isn't looked up every tick. */
+    private final MjReceiverHandle receiverHandle = new MjReceiverHandle(mjConnector);
 
     protected double heat = MIN_HEAT;// TODO: sync gui data
     protected long power = 0;// TODO: sync gui data
@@ -78,6 +81,14 @@ public abstract class TileEngineBase_BC8 extends TileBC_Neptune implements IDebu
 
     boolean movingState;
 
+    // The values of the saved fields when checkSaveDataChanged() was last called
+    private long lastPowerSaved = -1;
+    private double lastHeatSaved = -1;
+    private float lastProgressSaved = -1;
+    private int lastProgressPartSaved = -1;
+    private boolean lastRedstoneSaved;
+    private Direction lastDirectionSaved;
+
     // Needed: Power stored
 
     public TileEngineBase_BC8(BlockEntityType<?> bet, BlockPos pos, BlockState state) {
@@ -284,7 +295,7 @@ public abstract class TileEngineBase_BC8 extends TileBC_Neptune implements IDebu
     public void onNeighbourBlockChanged(Block block, BlockPos nehighbour) {
         super.onNeighbourBlockChanged(block, nehighbour);
         isRedstonePowered = level.hasNeighborSignal(worldPosition);
-        
+        receiverHandle.invalidate();
     }
 
     public void update() {
@@ -334,7 +345,7 @@ public abstract class TileEngineBase_BC8 extends TileBC_Neptune implements IDebu
                 progressPart = 0;
             }
         } else if (isRedstonePowered && isActive()) {
-            if (getPowerToExtract(false) > 0) {
+            if (getPowerToExtract(getCurrentReceiver(), false) > 0) {
                 progressPart = 1;
                 setPumping(true);
             } else {
@@ -353,11 +364,32 @@ public abstract class TileEngineBase_BC8 extends TileBC_Neptune implements IDebu
             burn();
         }
 
-        markChunkDirty();
+        if (checkSaveDataChanged()) {
+            scheduleChunkDirty();
+        }
+    }
+
+    /** Compares everything that this engine saves (and changes while running) to the values from the last call, so
+     * that idle engines don't mark their chunk as needing to be saved every tick. Subclasses that save more fields
+     * like this (such as a burn time) should override this, and check them as well as calling super.
+     *
+     * @return True if anything changed since the last call. */
+    protected boolean checkSaveDataChanged() {
+        if (power == lastPowerSaved && heat == lastHeatSaved && progress == lastProgressSaved
+            && progressPart == lastProgressPartSaved && isRedstonePowered == lastRedstoneSaved
+            && currentDirection == lastDirectionSaved) {
+            return false;
+        }
+        lastPowerSaved = power;
+        lastHeatSaved = heat;
+        lastProgressSaved = progress;
+        lastProgressPartSaved = progressPart;
+        lastRedstoneSaved = isRedstonePowered;
+        lastDirectionSaved = currentDirection;
+        return true;
     }
 
-    private long getPowerToExtract(boolean doExtract) {
-        IMjReceiver receiver = getReceiverToPower(currentDirection);
+    private long getPowerToExtract(IMjReceiver receiver, boolean doExtract) {
         if (receiver == null) {
             return 0;
         }
@@ -372,9 +404,9 @@ public abstract class TileEngineBase_BC8 extends TileBC_Neptune implements IDebu
     }
 
     private void sendPower() {
-        IMjReceiver receiver = getReceiverToPower(currentDirection);
+        IMjReceiver receiver = getCurrentReceiver();
         if (receiver != null) {
-            long extracted = getPowerToExtract(true);
+            long extracted = getPowerToExtract(receiver, true);
             if (extracted > 0) {
                 long excess = receiver.receivePower(extracted, FluidAction.EXECUTE);
                 extractPower(extracted - excess, extracted - excess, true); // Comment out for constant power
@@ -428,6 +460,7 @@ public abstract class TileEngineBase_BC8 extends TileBC_Neptune implements IDebu
     @Override
     public void setRemoved() {
         super.setRemoved();
+        receiverHandle.invalidate();
         // tileCache = null;
         // checkOrientation = true;
     }
@@ -529,6 +562,21 @@ public abstract class TileEngineBase_BC8 extends TileBC_Neptune implements IDebu
         }
     }
 
+    /** @return The same as {@link #getReceiverToPower(Direction)} for the {@link #currentDirection}, but without
+     *         looking up the receiver every tick if it's directly in front of this engine. */
+    private IMjReceiver getCurrentReceiver() {
+        Direction side = currentDirection;
+        if (receiverHandle.isResolved(side)) {
+            return receiverHandle.getReceiver();
+        }
+        BlockEntity next = getTileBuffer(side).getTile();
+        if (next instanceof TileEngineBase_BC8) {
+            // Other engines in the chain can rotate without this engine being told about it
+            return getReceiverToPower(side);
+        }
+        return receiverHandle.resolve(next, side);
+    }
+
     public IMjReceiver getReceiverToPower(Direction side) {
         TileEngineBase_BC8 engine = this;
         BlockEntity next = null;
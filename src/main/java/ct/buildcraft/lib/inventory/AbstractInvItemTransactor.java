@@ -6,7 +6,9 @@
 
 package ct.buildcraft.lib.inventory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import javax.annotation.Nonnull;
 
@@ -52,19 +54,26 @@ public abstract class AbstractInvItemTransactor implements IItemTransactor {
         }
     }
 
-    @Nonnull
-    private ItemStack insertAnyAmount(@Nonnull ItemStack stack, boolean simulate) {
+    /** @return The slots to try inserting the given stack into, in order. By default this is every slot that isn't
+     *         empty (so that the stack merges with existing stacks first), followed by every empty slot. */
+    protected IntList getInsertionSlots(@Nonnull ItemStack stack) {
         int slotCount = getSlots();
+        IntList slots = new IntArrayList(slotCount);
         IntList emptySlots = new IntArrayList(slotCount);
-        for (int slot = 0; slot < getSlots(); slot++) {
+        for (int slot = 0; slot < slotCount; slot++) {
             if (isEmpty(slot)) {
                 emptySlots.add(slot);
             } else {
-                stack = insert(slot, stack, simulate);
-                if (stack.isEmpty()) return ItemStack.EMPTY;
+                slots.add(slot);
             }
         }
-        for (int slot : emptySlots) {
+        slots.addAll(emptySlots);
+        return slots;
+    }
+
+    @Nonnull
+    private ItemStack insertAnyAmount(@Nonnull ItemStack stack, boolean simulate) {
+        for (int slot : getInsertionSlots(stack)) {
             stack = insert(slot, stack, simulate);
             if (stack.isEmpty()) return ItemStack.EMPTY;
         }
@@ -74,18 +83,9 @@ public abstract class AbstractInvItemTransactor implements IItemTransactor {
     @Nonnull
     private ItemStack insertAllAtOnce(@Nonnull ItemStack stack, boolean simulate) {
         ItemStack before = asValid(stack);
-        IntList insertedSlots = new IntArrayList(getSlots());
-        IntList emptySlots = new IntArrayList(getSlots());
-        for (int slot = 0; slot < getSlots(); slot++) {
-            if (isEmpty(slot)) {
-                emptySlots.add(slot);
-            } else {
-                stack = insert(slot, stack, true);
-                insertedSlots.add(slot);
-                if (stack.isEmpty()) break;
-            }
-        }
-        for (int slot : emptySlots) {
+        IntList slots = getInsertionSlots(stack);
+        IntList insertedSlots = new IntArrayList(slots.size());
+        for (int slot : slots) {
             stack = insert(slot, stack, true);
             insertedSlots.add(slot);
             if (stack.isEmpty()) break;
@@ -158,6 +158,77 @@ public abstract class AbstractInvItemTransactor implements IItemTransactor {
         return total;
     }
 
+    @Override
+    public NonNullList<ItemStack> extractStacks(IStackFilter filter, int maxStacks, int maxPerStack, boolean simulate) {
+        NonNullList<ItemStack> stacks = NonNullList.create();
+        if (maxStacks <= 0 || maxPerStack <= 0) {
+            return stacks;
+        }
+
+        if (filter == null) {
+            filter = StackFilter.ALL;
+        }
+
+        // The slots that each of the stacks were found in
+        List<IntList> stackSlots = new ArrayList<>();
+        int fullStacks = 0;
+        int slots = getSlots();
+
+        for (int slot = 0; slot < slots && fullStacks < maxStacks; slot++) {
+            ItemStack possible = extract(slot, filter, 1, maxPerStack, true);
+            if (possible.isEmpty()) {
+                continue;
+            }
+            int index = -1;
+            for (int i = 0; i < stacks.size(); i++) {
+                if (StackUtil.canMerge(stacks.get(i), possible)) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index == -1) {
+                if (stacks.size() >= maxStacks) {
+                    continue;
+                }
+                stacks.add(possible.copy());
+                IntList found = new IntArrayList();
+                found.add(slot);
+                stackSlots.add(found);
+                index = stacks.size() - 1;
+            } else {
+                ItemStack total = stacks.get(index);
+                int space = maxPerStack - total.getCount();
+                if (space <= 0) {
+                    continue;
+                }
+                total.grow(Math.min(space, possible.getCount()));
+                stackSlots.get(index).add(slot);
+            }
+            if (stacks.get(index).getCount() >= maxPerStack) {
+                fullStacks++;
+            }
+        }
+
+        if (!simulate) {
+            for (int i = 0; i < stacks.size(); i++) {
+                ItemStack total = stacks.get(i);
+                int left = total.getCount();
+                for (int slot : stackSlots.get(i)) {
+                    left -= extract(slot, filter, 1, left, false).getCount();
+                    if (left <= 0) {
+                        break;
+                    }
+                }
+                if (left > 0) {
+                    // Shouldn't happen unless an implementation doesn't simulate properly
+                    total.shrink(left);
+                }
+            }
+            stacks.removeIf(ItemStack::isEmpty);
+        }
+        return stacks;
+    }
+
     @Override
     public String toString() {
         ItemStack[] stacks = new ItemStack[getSlots()];
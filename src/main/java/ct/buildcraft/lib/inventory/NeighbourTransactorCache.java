@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.lib.inventory;
+
+import java.lang.ref.WeakReference;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import ct.buildcraft.api.inventory.IItemTransactor;
+import ct.buildcraft.lib.cache.NeighbourTileCache;
+import ct.buildcraft.lib.misc.CapUtil;
+
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.common.util.LazyOptional;
+
+/** Caches the {@link IItemTransactor} for each side of a block, so that the wrappers from
+ * {@link ItemTransactorHelper#getTransactor(net.minecraftforge.common.capabilities.ICapabilityProvider, Direction)}
+ * don't need to be looked up and created for every transfer.
+ * <p>
+ * A cached transactor is only returned while the neighbouring tile (which callers will normally get from a
+ * {@link NeighbourTileCache}) is the same one that it was created for, and it is thrown away as soon as the capability it
+ * came from is invalidated. Owners should also call {@link #invalidate(Direction)} when what they connect to on a side
+ * changes, and {@link #invalidate()} when they are removed or unloaded. */
+public final class NeighbourTransactorCache {
+    private final Entry[] entries = new Entry[6];
+
+    /** @param side The side of the owning block that the tile is on.
+     * @param tile The tile on that side, or null if there isn't one.
+     * @return The transactor for the face of the tile that touches the owning block. */
+    @Nonnull
+    public IItemTransactor getTransactor(Direction side, @Nullable BlockEntity tile) {
+        if (tile == null) {
+            entries[side.ordinal()] = null;
+            return NoSpaceTransactor.INSTANCE;
+        }
+        Entry entry = entries[side.ordinal()];
+        if (entry != null && entry.valid && entry.tile.get() == tile && !tile.isRemoved()) {
+            return entry.transactor;
+        }
+        Direction face = side.getOpposite();
+        IItemTransactor transactor = ItemTransactorHelper.getTransactor(tile, face);
+        if (transactor == NoSpaceTransactor.INSTANCE) {
+            // The tile might gain a capability later, so don't remember that it didn't have one
+            entries[side.ordinal()] = null;
+            return transactor;
+        }
+        entry = new Entry(tile, transactor);
+        entry.invalidateWith(tile.getCapability(CapUtil.CAP_ITEM_TRANSACTOR, face));
+        entry.invalidateWith(tile.getCapability(CapUtil.CAP_ITEMS, face));
+        entries[side.ordinal()] = entry;
+        return transactor;
+    }
+
+    public void invalidate() {
+        for (Direction side : Direction.values()) {
+            invalidate(side);
+        }
+    }
+
+    public void invalidate(Direction side) {
+        Entry entry = entries[side.ordinal()];
+        if (entry != null) {
+            entry.valid = false;
+            entries[side.ordinal()] = null;
+        }
+    }
+
+    private static final class Entry {
+        final WeakReference<BlockEntity> tile;
+        final IItemTransactor transactor;
+        boolean valid = true;
+
+        Entry(BlockEntity tile, IItemTransactor transactor) {
+            this.tile = new WeakReference<>(tile);
+            this.transactor = transactor;
+        }
+
+        /** Marks this as invalid when the given capability is (if it's present at all). Capabilities are invalidated
+         * when the tile is removed, or when it changes which handler it exposes. */
+        <T> void invalidateWith(LazyOptional<T> cap) {
+            if (cap.isPresent()) {
+                cap.addListener(c -> valid = false);
+            }
+        }
+    }
+}
@@ -6,9 +6,10 @@
 
 package ct.buildcraft.lib.misc;
 
+import java.util.Objects;
+
 import javax.annotation.Nonnull;
 
-import net.minecraft.nbt.CompoundTag;
 import net.minecraft.world.item.ItemStack;
 
 public class ItemStackKey {
@@ -42,13 +43,13 @@ public class ItemStackKey {
         if (baseStack.getItem() != other.baseStack.getItem()) {
             return false;
         }
-        CompoundTag tag1 = baseStack.getTag();
-        CompoundTag tag2 = other.baseStack.getTag();
-        boolean flag = tag1 == null;
-        if ((flag&&tag2!=null)||(!flag&&tag1.equals(tag2))) {
+        if (baseStack.getCount() != other.baseStack.getCount()) {
+            return false;
+        }
+        if (!Objects.equals(baseStack.getTag(), other.baseStack.getTag())) {
             return false;
         }
-        return baseStack.serializeNBT().equals(other.baseStack.serializeNBT());
+        return baseStack.areCapsCompatible(other.baseStack);
     }
 
     @Override
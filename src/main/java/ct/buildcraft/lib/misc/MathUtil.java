@@ -73,4 +73,34 @@ public class MathUtil {
     public static int findLowestCommonMultiple(int a, int b) {
         return (a / findHighestCommonFactor(a, b)) * b;
     }
+
+    /** Computes (a * b) / c without overflowing, using a 128 bit intermediate product (and without allocating, unlike
+     * {@link java.math.BigInteger}). All arguments must be non-negative, and c must be positive.
+     * 
+     * @return The result, rounded down, or {@link Long#MAX_VALUE} if it doesn't fit in a long. */
+    public static long mulDiv(long a, long b, long c) {
+        long lo = a * b;
+        long hi = Math.multiplyHigh(a, b);
+        if (hi == 0 && lo >= 0) {
+            return lo / c;
+        }
+        if (Long.compareUnsigned(hi, c) >= 0) {
+            // The quotient would have more than 64 bits
+            return Long.MAX_VALUE;
+        }
+        // Shift-subtract division of the unsigned 128 bit (hi, lo) by c. As hi < c the remainder always fits in 64
+        // bits, and the top bit of the remainder is tracked separately so c can use all 63 bits.
+        long quotient = 0;
+        long rem = hi;
+        for (int i = 63; i >= 0; i--) {
+            boolean carry = rem < 0;
+            rem = (rem << 1) | ((lo >>> i) & 1);
+            quotient <<= 1;
+            if (carry || Long.compareUnsigned(rem, c) >= 0) {
+                rem -= c;
+                quotient |= 1;
+            }
+        }
+        return quotient < 0 ? Long.MAX_VALUE : quotient;
+    }
 }
@@ -16,7 +16,7 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import ct.buildcraft.api.core.BCLog;
-import ct.buildcraft.lib.misc.data.DelayedList;
+import ct.buildcraft.lib.misc.data.DelayedRingList;
 import ct.buildcraft.lib.net.MessageManager;
 import ct.buildcraft.lib.net.PacketBufferBC;
 import com.mojang.authlib.GameProfile;
@@ -44,8 +44,8 @@ public class MessageUtil {
 	//
 	static final int SENDING_DISTANCE = 10;
 	
-    private static final DelayedList<Runnable> DELAYED_SERVER_TASKS = DelayedList.createConcurrent();
-    private static final DelayedList<Runnable> DELAYED_CLIENT_TASKS = DelayedList.createConcurrent();
+    private static final DelayedRingList<Runnable> DELAYED_SERVER_TASKS = DelayedRingList.createConcurrent();
+    private static final DelayedRingList<Runnable> DELAYED_CLIENT_TASKS = DelayedRingList.createConcurrent();
 
     private MessageUtil() {};
     
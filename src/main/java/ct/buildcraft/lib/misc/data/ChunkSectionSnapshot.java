@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.lib.misc.data;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.material.FluidState;
+
+/** A copy of the block states in a box of chunk sections, taken on the server thread, that can then be read from any
+ * thread (for example to run a large search on a background thread).
+ * <p>
+ * Only chunks that were already loaded are copied - everything else (including sections that only contained air, and
+ * positions outside of the box) reads as air. Nothing is kept in sync with the world after the snapshot is taken. */
+public final class ChunkSectionSnapshot {
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    private final int minSectionX, minSectionY, minSectionZ;
+    private final int sizeX, sizeY, sizeZ;
+    /** Indexed by (x * sizeY + y) * sizeZ + z. Null for sections that only contained air. */
+    private final PalettedContainer<BlockState>[] sections;
+
+    @SuppressWarnings("unchecked")
+    private ChunkSectionSnapshot(int minSectionX, int minSectionY, int minSectionZ, int sizeX, int sizeY, int sizeZ) {
+        this.minSectionX = minSectionX;
+        this.minSectionY = minSectionY;
+        this.minSectionZ = minSectionZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.sections = new PalettedContainer[sizeX * sizeY * sizeZ];
+    }
+
+    /** Copies every section that contains any block in the box between the two (inclusive) positions. This must be
+     * called from the thread that owns the level. */
+    public static ChunkSectionSnapshot capture(Level level, BlockPos min, BlockPos max) {
+        int minSx = SectionPos.blockToSectionCoord(Math.min(min.getX(), max.getX()));
+        int minSz = SectionPos.blockToSectionCoord(Math.min(min.getZ(), max.getZ()));
+        int maxSx = SectionPos.blockToSectionCoord(Math.max(min.getX(), max.getX()));
+        int maxSz = SectionPos.blockToSectionCoord(Math.max(min.getZ(), max.getZ()));
+        int minSy = Math.max(level.getMinSection(), SectionPos.blockToSectionCoord(Math.min(min.getY(), max.getY())));
+        int maxSy = Math.min(level.getMaxSection() - 1, SectionPos.blockToSectionCoord(Math.max(min.getY(), max.getY())));
+
+        int sizeY = Math.max(0, maxSy - minSy + 1);
+        ChunkSectionSnapshot snapshot =
+            new ChunkSectionSnapshot(minSx, minSy, minSz, maxSx - minSx + 1, sizeY, maxSz - minSz + 1);
+        for (int sx = minSx; sx <= maxSx; sx++) {
+            for (int sz = minSz; sz <= maxSz; sz++) {
+                LevelChunk chunk = level.getChunkSource().getChunkNow(sx, sz);
+                if (chunk == null) {
+                    continue;
+                }
+                LevelChunkSection[] chunkSections = chunk.getSections();
+                for (int sy = minSy; sy <= maxSy; sy++) {
+                    int index = level.getSectionIndexFromSectionY(sy);
+                    if (index < 0 || index >= chunkSections.length) {
+                        continue;
+                    }
+                    LevelChunkSection section = chunkSections[index];
+                    if (section == null || section.hasOnlyAir()) {
+                        continue;
+                    }
+                    snapshot.sections[snapshot.index(sx - minSx, sy - minSy, sz - minSz)] = section.getStates().copy();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private int index(int dx, int dy, int dz) {
+        return (dx * sizeY + dy) * sizeZ + dz;
+    }
+
+    public BlockState getBlockState(int x, int y, int z) {
+        int dx = (x >> 4) - minSectionX;
+        int dy = (y >> 4) - minSectionY;
+        int dz = (z >> 4) - minSectionZ;
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= sizeX || dy >= sizeY || dz >= sizeZ) {
+            return AIR;
+        }
+        PalettedContainer<BlockState> states = sections[index(dx, dy, dz)];
+        if (states == null) {
+            return AIR;
+        }
+        return states.get(x & 15, y & 15, z & 15);
+    }
+
+    /** @param pos A position packed with {@link BlockPos#asLong()}. */
+    public BlockState getBlockState(long pos) {
+        return getBlockState(BlockPos.getX(pos), BlockPos.getY(pos), BlockPos.getZ(pos));
+    }
+
+    /** @param pos A position packed with {@link BlockPos#asLong()}. */
+    public FluidState getFluidState(long pos) {
+        return getBlockState(pos).getFluidState();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.lib.misc.data;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/** A drop-in alternative to {@link DelayedList} that stores the delay slots in a circular buffer (a timing wheel).
+ * <p>
+ * {@link #advance()} is O(1) and doesn't allocate: the slot lists are pooled and reused, and the ring only grows (to
+ * the next power of two) when an element is added with a delay larger than the current capacity.
+ * <p>
+ * Unlike {@link DelayedList} the list returned by {@link #advance()} is owned by this object, and is only valid until
+ * the next call to {@link #advance()}. Adding elements while iterating over it is fine, as it is never part of the
+ * ring. */
+public class DelayedRingList<E> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /** The slots, indexed by (head + delay) & mask. */
+    private List<E>[] slots;
+    private int mask;
+    private int head;
+    /** Equivalent to the size of the outer list in {@link DelayedList}. */
+    private int maxDelay;
+    /** The list that was returned by the last call to {@link #advance()}. This is swapped back into the ring at the
+     * next call, after being cleared. */
+    private List<E> drained = new ArrayList<>();
+
+    private final List<List<E>> orderedView = new AbstractList<List<E>>() {
+        @Override
+        public List<E> get(int index) {
+            if (index < 0 || index >= maxDelay) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return slots[(head + index) & mask];
+        }
+
+        @Override
+        public int size() {
+            return maxDelay;
+        }
+    };
+
+    public DelayedRingList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** @param initialCapacity The number of delay slots to preallocate. Rounded up to a power of two. */
+    public DelayedRingList(int initialCapacity) {
+        slots = createSlots(roundUpPow2(Math.max(2, initialCapacity)));
+        mask = slots.length - 1;
+    }
+
+    public static <E> DelayedRingList<E> createConcurrent() {
+        return new DelayedRingList<E>() {
+            @Override
+            public synchronized int getMaxDelay() {
+                return super.getMaxDelay();
+            }
+
+            @Override
+            public synchronized List<E> advance() {
+                return super.advance();
+            }
+
+            @Override
+            public synchronized void add(int delay, E element) {
+                super.add(delay, element);
+            }
+
+            @Override
+            public synchronized void clear() {
+                super.clear();
+            }
+        };
+    }
+
+    private static int roundUpPow2(int value) {
+        return Integer.highestOneBit(value - 1) << 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> List<E>[] createSlots(int capacity) {
+        List<E>[] array = new List[capacity];
+        for (int i = 0; i < capacity; i++) {
+            array[i] = new ArrayList<>();
+        }
+        return array;
+    }
+
+    /** @return The maximum delay value that any of the elements has. */
+    public int getMaxDelay() {
+        return maxDelay;
+    }
+
+    /** @return The number of delay slots that can be used before the ring needs to grow. */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /** Advances this list by one, effectively decrementing the delays of every element by one and returning all
+     * elements that have a delay of 0.
+     *
+     * @return The elements that are no longer on a delay. This list is reused by the next call to this method, so it
+     *         must not be held on to. */
+    public List<E> advance() {
+        drained.clear();
+        if (maxDelay == 0) {
+            return drained;
+        }
+        List<E> current = slots[head];
+        slots[head] = drained;
+        drained = current;
+        head = (head + 1) & mask;
+        maxDelay--;
+        return current;
+    }
+
+    /** Adds an element that will by returned by {@link #advance()} after it has been called delay times.
+     *
+     * @param delay The number of times that advance needs to be called for the *next* advance to return this element.
+     *            Negative numbers default up to 0. */
+    public void add(int delay, E element) {
+        if (delay < 0) {
+            delay = 0;
+        }
+        if (delay >= slots.length) {
+            grow(delay + 1);
+        }
+        slots[(head + delay) & mask].add(element);
+        if (maxDelay < delay + 1) {
+            maxDelay = delay + 1;
+        }
+    }
+
+    private void grow(int minCapacity) {
+        List<E>[] newSlots = createSlots(roundUpPow2(minCapacity));
+        for (int i = 0; i < slots.length; i++) {
+            // Reuse the old lists rather than copying their contents
+            newSlots[i] = slots[(head + i) & mask];
+        }
+        slots = newSlots;
+        mask = newSlots.length - 1;
+        head = 0;
+    }
+
+    /** @return A read-only view of the slots, in delay order. Most useful for saving the elements for later. The view
+     *         is live, and doesn't allocate anything when iterated. */
+    public List<List<E>> getAllElements() {
+        return orderedView;
+    }
+
+    /** Removes *all* elements from this list. The slot lists are kept for reuse. */
+    public void clear() {
+        for (List<E> slot : slots) {
+            slot.clear();
+        }
+        drained.clear();
+        head = 0;
+        maxDelay = 0;
+    }
+}
@@ -50,7 +50,8 @@ public class MessageUpdateTile {
 
     public static void toBytes(MessageUpdateTile msg, FriendlyByteBuf buf) {
         buf.writeBlockPos(msg.pos);
-        buf.writeBytes(msg.payload);
+        // Don't move the reader index, so the same message can be sent to more than one player
+        buf.writeBytes(msg.payload, msg.payload.readerIndex(), msg.payload.readableBytes());
     }
 
     public static final BiConsumer<MessageUpdateTile, Supplier<NetworkEvent.Context>> HANDLER = (message, ctx) -> {
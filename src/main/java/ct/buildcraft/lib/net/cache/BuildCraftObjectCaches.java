@@ -76,6 +76,21 @@ public class BuildCraftObjectCaches {
         }
     }
 
+    /** Called by BuildCraftLib at the end of every server tick. */
+    public static void onServerTick() {
+        for (NetworkedObjectCache<?> cache : CACHES) {
+            cache.onServerTick();
+        }
+    }
+
+    /** Called by BuildCraftLib when the server stops, so that an integrated server doesn't keep every object alive
+     * after the world is closed. */
+    public static void onServerStopped() {
+        for (NetworkedObjectCache<?> cache : CACHES) {
+            cache.onServerStopped();
+        }
+    }
+
     /** Called by BuildCraftLib on the client side whenever it joins a server. */
     public static void onClientJoinServer() {
         for (NetworkedObjectCache<?> cache : CACHES) {
@@ -16,9 +16,13 @@ import ct.buildcraft.api.core.BCDebugging;
 import ct.buildcraft.api.core.BCLog;
 import ct.buildcraft.lib.net.MessageManager;
 
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntMaps;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.server.MinecraftServer;
@@ -38,9 +42,23 @@ public abstract class NetworkedObjectCache<T> {
     static final boolean DEBUG_LOG = BCDebugging.shouldDebugLog("lib.net.cache");
     static final boolean DEBUG_CPLX = BCDebugging.shouldDebugComplex("lib.net.cache");
 
-    /* Implementation notes -- this currently is a simple, never expiring object<->id cache. Because it doesn't ever
-     * clear objects out of the cache we can guarantee that the index of an object is unique, just by incrementing a
-     * single variable. */
+    /* Implementation notes -- this is a generational object<->id cache. Every object remembers the last generation
+     * that it was stored or requested in, and anything that hasn't been used for a whole generation is evicted. IDs
+     * are never reused (they just come from incrementing a single variable) so an evicted object that is stored again
+     * gets a new ID, and a client can never receive the wrong object for an old ID.
+     *
+     * Clients acknowledge an ID by requesting it, which also counts as a use -- so an object is only evicted once every
+     * client that was sent its ID has had plenty of time to ask for it. Clients evict their own links in the same way,
+     * and simply request them again if they are needed after that. */
+
+    /** How many ticks a single generation lasts for. */
+    static final int GENERATION_TICKS = 20 * 60 * 5;
+
+    /** If the server has more than this many objects then generations are made to end early (but no more than once
+     * every {@link #MIN_GENERATION_TICKS}), so that a lot of different objects in a short time don't use up too much
+     * memory. */
+    static final int SERVER_SOFT_LIMIT = 1 << 15;
+    static final int MIN_GENERATION_TICKS = 20 * 30;
 
     /** The default object -- used at the client in case the object hasn't been sent to the client yet. */
     protected final T defaultObject;
@@ -49,8 +67,20 @@ public abstract class NetworkedObjectCache<T> {
     /** Server side map of the object to its integer ID. Inverse of {@link #serverIdToObject} */
     private final Object2IntMap<T> serverObjectToId = createObject2IntMap();
 
+    /** Server side map of the object ID to the last generation that it was stored or requested in. */
+    private final Int2IntMap serverIdToGeneration = new Int2IntOpenHashMap();
+
     /** The ID for the next stored object. */
     private int serverCurrentId = 0;
+    private int serverGeneration = 0;
+    private int serverGenerationTicks = 0;
+
+    // Server metrics, for debugging
+    private long serverHits, serverMisses, serverEvictions, serverMissingRequests;
+
+    private int clientGeneration = 0;
+    private int clientGenerationTicks = 0;
+    private long clientEvictions;
 
     /** The list of cached client-side objects. */
     private final Int2ObjectMap<Link> clientObjects = new Int2ObjectOpenHashMap<>();
@@ -105,6 +135,17 @@ public abstract class NetworkedObjectCache<T> {
             return serverStore(value);
         }
 
+        /** @return The number of objects currently stored in this cache. */
+        public int size() {
+            return serverIdToObject.size();
+        }
+
+        /** @return The fraction of calls to {@link #store(Object)} that found an existing entry. */
+        public double getHitRate() {
+            long total = serverHits + serverMisses;
+            return total == 0 ? 0 : serverHits / (double) total;
+        }
+
         /** Gets the ID for the given object, or -1 if this was not stored in the cache. {@link #store(Object)} is
          * preferred to this, as most uses (such as network sending) want the value to be stored and get a valid ID.
          * 
@@ -126,6 +167,11 @@ public abstract class NetworkedObjectCache<T> {
         public Link retrieve(int id) {
             return clientRetrieve(id);
         }
+
+        /** @return The number of links currently stored in this cache. */
+        public int size() {
+            return clientObjects.size();
+        }
     }
 
     /** Defines a link to a cached object (on the client - don't use this on the server). If */
@@ -137,6 +183,12 @@ public abstract class NetworkedObjectCache<T> {
         /** The id of this value. */
         final int id;
 
+        /** The last client generation that this link was retrieved in. */
+        int lastUsed;
+
+        /** True if the server had already evicted this value when it was requested. */
+        boolean missing;
+
         Link(int id) {
             this.id = id;
         }
@@ -149,6 +201,12 @@ public abstract class NetworkedObjectCache<T> {
         public boolean hasBeenReceived() {
             return actual != null;
         }
+
+        /** @return True if the server no longer had this value when it was requested, so {@link #get()} will always
+         *         return the default object. This only happens if the ID was sent a long time before it was needed. */
+        public boolean isMissing() {
+            return missing;
+        }
     }
 
     // Abstract overridable methods
@@ -177,13 +235,15 @@ public abstract class NetworkedObjectCache<T> {
      * @param object
      * @return */
     private int serverStore(T object) {
-        Integer current = serverObjectToId.get(object);
-        if (current == null) {
+        int current = serverObjectToId.getInt(object);
+        if (current == -1) {
             // new entry
+            serverMisses++;
             int id = serverCurrentId++;
             T copy = copyOf(object);
             serverObjectToId.put(copy, id);
             serverIdToObject.put(id, copy);
+            serverIdToGeneration.put(id, serverGeneration);
             if (DEBUG_CPLX) {
                 String toString;
                 if (copy instanceof FluidStack) {
@@ -197,6 +257,8 @@ public abstract class NetworkedObjectCache<T> {
             return id;
         } else {
             // existing entry
+            serverHits++;
+            serverIdToGeneration.put(current, serverGeneration);
             return current;
         }
     }
@@ -228,12 +290,25 @@ public abstract class NetworkedObjectCache<T> {
             clientUnknowns.add(current);
             clientObjects.put(id, current);
         }
+        current.lastUsed = clientGeneration;
         return current;
     }
 
-    /** Used by {@link MessageObjectCacheRequest#HANDLER} to write the actual object out. */
+    /** Used by {@link MessageObjectCacheRequest#HANDLER} to write the actual object out. A request counts as a use of
+     * the object, so it won't be evicted while clients are still asking for it. */
     void writeObjectServer(int id, FriendlyByteBuf buffer) {
         T obj = serverIdToObject.get(id);
+        if (obj == null) {
+            serverMissingRequests++;
+            if (DEBUG_CPLX) {
+                BCLog.logger.info("[lib.net.cache] The cache " + getNameAndId() + " was asked for #" + id
+                    + " after it was evicted");
+            }
+            buffer.writeBoolean(false);
+            return;
+        }
+        serverIdToGeneration.put(id, serverGeneration);
+        buffer.writeBoolean(true);
         writeObject(obj, buffer);
     }
 
@@ -244,7 +319,16 @@ public abstract class NetworkedObjectCache<T> {
      * @throws IOException */
     void readObjectClient(int id, FriendlyByteBuf buffer) throws IOException {
         Link link = clientRetrieve(id);
+        if (!buffer.readBoolean()) {
+            link.missing = true;
+            if (DEBUG_CPLX) {
+                BCLog.logger.info("[lib.net.cache] The cache " + getNameAndId() + " can't get #" + id
+                    + " as the server has evicted it");
+            }
+            return;
+        }
         link.actual = readObject(buffer);
+        link.missing = false;
         if (DEBUG_CPLX) {
             T read = link.actual;
             String toString;
@@ -263,7 +347,72 @@ public abstract class NetworkedObjectCache<T> {
         return "(" + BuildCraftObjectCaches.CACHES.indexOf(this) + " = " + getCacheName() + ")";
     }
 
+    void onServerTick() {
+        serverGenerationTicks++;
+        if (serverGenerationTicks < GENERATION_TICKS) {
+            if (serverIdToObject.size() <= SERVER_SOFT_LIMIT || serverGenerationTicks < MIN_GENERATION_TICKS) {
+                return;
+            }
+        }
+        serverGenerationTicks = 0;
+        serverGeneration++;
+        int evicted = 0;
+        ObjectIterator<Int2IntMap.Entry> iter = Int2IntMaps.fastIterator(serverIdToGeneration);
+        while (iter.hasNext()) {
+            Int2IntMap.Entry entry = iter.next();
+            if (serverGeneration - entry.getIntValue() > 1) {
+                iter.remove();
+                T obj = serverIdToObject.remove(entry.getIntKey());
+                serverObjectToId.removeInt(obj);
+                evicted++;
+            }
+        }
+        serverEvictions += evicted;
+        if (DEBUG_LOG && evicted > 0) {
+            BCLog.logger.info("[lib.net.cache] The cache " + getNameAndId() + " evicted " + evicted + " objects, "
+                + getServerDebugString());
+        }
+    }
+
+    void onServerStopped() {
+        serverIdToObject.clear();
+        serverObjectToId.clear();
+        serverIdToGeneration.clear();
+        serverGenerationTicks = 0;
+    }
+
+    final String getServerDebugString() {
+        return serverIdToObject.size() + " stored, " + serverHits + " hits, " + serverMisses + " misses, "
+            + serverEvictions + " evicted, " + serverMissingRequests + " requested after eviction";
+    }
+
+    final String getClientDebugString() {
+        return clientObjects.size() + " stored, " + clientUnknowns.size() + " unknown, " + clientEvictions
+            + " evicted";
+    }
+
     void onClientWorldTick() {
+        clientGenerationTicks++;
+        if (clientGenerationTicks >= GENERATION_TICKS) {
+            clientGenerationTicks = 0;
+            clientGeneration++;
+            // Only drop links that have been answered: everything else is still waiting for a response
+            int evicted = 0;
+            ObjectIterator<Link> iter = clientObjects.values().iterator();
+            while (iter.hasNext()) {
+                Link link = iter.next();
+                if ((link.actual != null || link.missing) && clientGeneration - link.lastUsed > 1) {
+                    iter.remove();
+                    evicted++;
+                }
+            }
+            clientEvictions += evicted;
+            if (DEBUG_LOG && evicted > 0) {
+                BCLog.logger.info("[lib.net.cache] The cache " + getNameAndId() + " evicted " + evicted
+                    + " client links, " + getClientDebugString());
+            }
+        }
+
         int[] ids = new int[clientUnknowns.size()];
         for (int i = 0; i < ids.length; i++) {
             ids[i] = clientUnknowns.remove().id;
@@ -280,5 +429,6 @@ public abstract class NetworkedObjectCache<T> {
     void onClientJoinServer() {
         clientObjects.clear();
         clientUnknowns.clear();
+        clientGenerationTicks = 0;
     }
 }
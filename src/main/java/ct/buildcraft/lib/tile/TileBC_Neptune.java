@@ -17,6 +17,7 @@ import org.jetbrains.annotations.NotNull;
 import ct.buildcraft.api.core.BCDebugging;
 import ct.buildcraft.api.core.BCLog;
 import ct.buildcraft.api.core.IPlayerOwned;
+import ct.buildcraft.lib.BCLibConfig;
 import ct.buildcraft.lib.cache.CachedChunk;
 import ct.buildcraft.lib.cache.IChunkCache;
 import ct.buildcraft.lib.cache.ITileCache;
@@ -118,6 +119,14 @@ public abstract class TileBC_Neptune extends BlockEntity implements IPayloadRece
     private GameProfile owner;
 
     private final IChunkCache chunkCache = new CachedChunk(this);
+    /** True if {@link #canSleep()} returned true at the end of the last update, and nothing has called
+     * {@link #wakeUp()} since then. */
+    private boolean sleeping = false;
+    /** True if {@link #scheduleChunkDirty()} was called, but the chunk hasn't been marked dirty since. */
+    private boolean chunkDirtyPending = false;
+    /** The game time that the chunk was last marked dirty. Starts far enough in the past that the first scheduled change
+     * is always due, without {@code now - lastChunkDirtyTime} overflowing. */
+    private long lastChunkDirtyTime = Long.MIN_VALUE / 2;
     private final ITileCache tileCache = TileCacheType.NEIGHBOUR_CACHE.create(this);
 
     protected final DeltaManager deltaManager = new DeltaManager((gui, type, writer) -> {
@@ -281,6 +290,7 @@ public abstract class TileBC_Neptune extends BlockEntity implements IPayloadRece
         super.onLoad();
         chunkCache.invalidate();
         tileCache.invalidate();
+        wakeUp();
     }
 
     @Override
@@ -293,6 +303,44 @@ public abstract class TileBC_Neptune extends BlockEntity implements IPayloadRece
     public void update() {
     }
 
+    /** Calls {@link #update()}, unless this tile is sleeping. Tickers should call this rather than {@link #update()}
+     * directly. */
+    public final void updateIfAwake() {
+        if (sleeping) {
+            return;
+        }
+        update();
+        if (chunkDirtyPending && level != null) {
+            long since = level.getGameTime() - lastChunkDirtyTime;
+            // A negative value means the game time went backwards, so don't wait for it to catch up
+            if (since < 0 || since >= BCLibConfig.minChunkDirtyInterval) {
+                markChunkDirty();
+            }
+        }
+        // Don't sleep with a pending change, as it wouldn't be saved until this woke up
+        sleeping = !chunkDirtyPending && canSleep();
+    }
+
+    /** Checked at the end of every {@link #update()}. If this returns true then this tile won't be updated again until
+     * something calls {@link #wakeUp()}. This is already done when a neighbour changes, when a capability is requested,
+     * when a player opens this tile's GUI, and when a message is received for this tile- so implementations only need
+     * to call it for anything else that gives them more work to do (for example when something is inserted through a
+     * capability instance that was cached by a neighbour).
+     *
+     * @return True if this tile has nothing to do until it is woken up. Defaults to false. */
+    protected boolean canSleep() {
+        return false;
+    }
+
+    /** Makes sure that this tile will be updated next tick, if it was sleeping. */
+    public final void wakeUp() {
+        sleeping = false;
+    }
+
+    public final boolean isSleeping() {
+        return sleeping;
+    }
+
     /** Called whenever {@link #onRemove()} is called (by default). */
     public void addDrops(NonNullList<ItemStack> toDrop, int fortune) {
         itemManager.addDrops(toDrop);
@@ -324,6 +372,7 @@ public abstract class TileBC_Neptune extends BlockEntity implements IPayloadRece
         }
         sendNetworkUpdate(NET_GUI_DATA, player);
         usingPlayers.add(player);
+        wakeUp();
     }
 
     public void onPlayerClose(Player player) {
@@ -336,6 +385,7 @@ public abstract class TileBC_Neptune extends BlockEntity implements IPayloadRece
 
     public void onNeighbourBlockChanged(Block block, BlockPos nehighbour) {
         tileCache.invalidate();
+        wakeUp();
     }
 
 /*    @Override
@@ -346,6 +396,7 @@ public abstract class TileBC_Neptune extends BlockEntity implements IPayloadRece
     @Override
 	public <T> @NotNull LazyOptional<T> getCapability(@NotNull Capability<T> cap,
 			@Nullable Direction side) {
+        wakeUp();
         LazyOptional<T> obj = caps.getCapability(cap, side);
         if (obj.isPresent()) {
             return obj;
@@ -372,9 +423,18 @@ public abstract class TileBC_Neptune extends BlockEntity implements IPayloadRece
     public void markChunkDirty() {
         if (level != null) {
             level.blockEntityChanged(worldPosition);
+            lastChunkDirtyTime = level.getGameTime();
+            chunkDirtyPending = false;
         }
     }
 
+    /** Rate-limited version of {@link #markChunkDirty()}, for tiles whose saved state changes every tick (such as the
+     * power in an engine). The chunk is marked dirty at most once every {@link BCLibConfig#minChunkDirtyInterval}
+     * ticks, at the end of an {@link #update()}. */
+    public void scheduleChunkDirty() {
+        chunkDirtyPending = true;
+    }
+
     // ##################
     //
     // Permission related
@@ -606,6 +666,7 @@ public abstract class TileBC_Neptune extends BlockEntity implements IPayloadRece
     public final void receivePayload(NetworkEvent.Context ctx, FriendlyByteBuf buffer) throws IOException {
         int id = buffer.readUnsignedShort();
         LogicalSide direction = ctx.getDirection().getReceptionSide();
+        wakeUp();
         readPayload(id, buffer, direction ,ctx);
 
         // Make sure that we actually read the entire message rather than just discarding it
@@ -137,8 +137,11 @@ public class WorkbenchCrafting extends CraftingContainer {
     	}
     	int[] result = new int[1];
     	ItemHandlerSimple inv = pickInv(index, result);
-    	if(inv != null) 
-    		return ContainerHelper.takeItem(inv.stacks, result[0]);
+    	if(inv != null) {
+    		ItemStack stack = ContainerHelper.takeItem(inv.stacks, result[0]);
+    		inv.onSlotChangedExternally(result[0]);
+    		return stack;
+    	}
 		return ItemStack.EMPTY;
 	}
 
@@ -149,8 +152,11 @@ public class WorkbenchCrafting extends CraftingContainer {
     	}
     	int[] result = new int[1];
     	ItemHandlerSimple inv = pickInv(index, result);
-    	if(inv != null) 
-    		return ContainerHelper.removeItem(inv.stacks, result[0], num);
+    	if(inv != null) {
+    		ItemStack stack = ContainerHelper.removeItem(inv.stacks, result[0], num);
+    		inv.onSlotChangedExternally(result[0]);
+    		return stack;
+    	}
 		return ItemStack.EMPTY;
 	}
 	
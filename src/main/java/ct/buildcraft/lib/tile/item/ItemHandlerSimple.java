@@ -12,9 +12,13 @@ import org.jetbrains.annotations.NotNull;
 
 import ct.buildcraft.api.core.IStackFilter;
 import ct.buildcraft.lib.inventory.AbstractInvItemTransactor;
+import ct.buildcraft.lib.inventory.filter.StackFilter;
 import ct.buildcraft.lib.misc.StackUtil;
 import ct.buildcraft.lib.tile.item.StackInsertionFunction.InsertionResult;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import net.minecraft.CrashReport;
 import net.minecraft.CrashReportCategory;
 import net.minecraft.ReportedException;
@@ -36,12 +40,18 @@ public class ItemHandlerSimple extends AbstractInvItemTransactor
     private StackChangeCallback callback;
     
 
-    // Actual item stacks used
+    /** Actual item stacks used. If the slot index is enabled then anything that changes these directly (rather than
+     * through {@link #setStackInSlot(int, ItemStack)}) must call {@link #onSlotChangedExternally(int)} (or
+     * {@link #onStacksChangedExternally()} for many slots) afterwards. */
     public final NonNullList<ItemStack> stacks;
 
     // Transactor speedup (small)
     private int firstUsed = Integer.MAX_VALUE;
 
+    // Transactor speedup (large, opt-in)
+    @Nullable
+    private ItemSlotIndex slotIndex;
+
     public ItemHandlerSimple(int size) {
         this(size, (slot, stack) -> true, StackInsertionFunction.getDefaultInserter(), null);
     }
@@ -83,6 +93,42 @@ public class ItemHandlerSimple extends AbstractInvItemTransactor
         this.callback = callback;
     }
 
+    /** Makes this keep an {@link ItemSlotIndex} of its contents, so that inserting and extracting through the
+     * {@link ct.buildcraft.api.inventory.IItemTransactor} methods only looks at the slots that are relevant rather
+     * than every slot. This is only worth it for large inventories. */
+    public ItemHandlerSimple enableSlotIndex() {
+        if (slotIndex == null) {
+            slotIndex = new ItemSlotIndex(stacks);
+        }
+        return this;
+    }
+
+    /** @return The slots that hold the same item (and tag) as the given stack, in ascending order. Only usable after
+     *         {@link #enableSlotIndex()} has been called.
+     * @throws IllegalStateException if the slot index hasn't been enabled. */
+    public IntSortedSet getSlotsHolding(@Nonnull ItemStack stack) {
+        if (slotIndex == null) {
+            throw new IllegalStateException("The slot index hasn't been enabled!");
+        }
+        slotIndex.validateSuspect(stacks);
+        return slotIndex.getSlots(stack);
+    }
+
+    /** Updates the slot index (if it's enabled) after a single slot of {@link #stacks} was written to directly. This
+     * only marks the slot to be re-checked, rather than checking every slot like {@link #onStacksChangedExternally()}. */
+    public void onSlotChangedExternally(int slot) {
+        if (slotIndex != null && !badSlotIndex(slot)) {
+            slotIndex.markSuspect(slot);
+        }
+    }
+
+    /** Rebuilds the slot index (if it's enabled) after many slots of {@link #stacks} were written to directly. */
+    public void onStacksChangedExternally() {
+        if (slotIndex != null) {
+            slotIndex.validate(stacks);
+        }
+    }
+
     @Override
     public CompoundTag serializeNBT() {
         CompoundTag nbt = new CompoundTag();
@@ -127,6 +173,10 @@ public class ItemHandlerSimple extends AbstractInvItemTransactor
     @Nonnull
     public ItemStack getStackInSlot(int slot) {
         if (badSlotIndex(slot)) return ItemStack.EMPTY;
+        if (slotIndex != null) {
+            // The caller can change the stack in place
+            slotIndex.markSuspect(slot);
+        }
         return asValid(stacks.get(slot));
     }
 
@@ -174,6 +224,76 @@ public class ItemHandlerSimple extends AbstractInvItemTransactor
         return insertItem(slot, stack, simulate);
     }
 
+    @Override
+    protected IntList getInsertionSlots(@Nonnull ItemStack stack) {
+        if (slotIndex == null) {
+            return super.getInsertionSlots(stack);
+        }
+        slotIndex.validateSuspect(stacks);
+        IntList slots = new IntArrayList(slotIndex.getSlots(stack));
+        for (int slot = slotIndex.nextEmptySlot(0); slot >= 0; slot = slotIndex.nextEmptySlot(slot + 1)) {
+            slots.add(slot);
+        }
+        return slots;
+    }
+
+    @Nonnull
+    @Override
+    public ItemStack extract(IStackFilter filter, int min, int max, boolean simulate) {
+        if (slotIndex == null) {
+            return super.extract(filter, min, max, simulate);
+        }
+        if (min < 1) min = 1;
+        if (min > max) return ItemStack.EMPTY;
+        if (max < 0) return ItemStack.EMPTY;
+
+        if (filter == null) {
+            filter = StackFilter.ALL;
+        }
+
+        slotIndex.validateSuspect(stacks);
+
+        // Find the same kind of item that a scan through every slot would: the one in the lowest slot
+        IntSortedSet found = null;
+        int foundFirst = Integer.MAX_VALUE;
+        for (IntSortedSet slots : slotIndex.getAllSlots()) {
+            int first = slots.firstInt();
+            if (first < foundFirst && filter.matches(stacks.get(first))) {
+                found = slots;
+                foundFirst = first;
+            }
+        }
+        if (found == null) {
+            return ItemStack.EMPTY;
+        }
+
+        int totalSize = 0;
+        for (int slot : found) {
+            totalSize += stacks.get(slot).getCount();
+            if (totalSize >= max) {
+                break;
+            }
+        }
+        if (totalSize < min) {
+            return ItemStack.EMPTY;
+        }
+
+        ItemStack total = ItemStack.EMPTY;
+        // Copied as extracting might empty slots, which modifies the set
+        for (int slot : found.toIntArray()) {
+            ItemStack extracted = extract(slot, filter, 1, max - total.getCount(), simulate);
+            if (total.isEmpty()) {
+                total = extracted.copy();
+            } else {
+                total.grow(extracted.getCount());
+            }
+            if (total.getCount() >= max) {
+                break;
+            }
+        }
+        return total;
+    }
+
     @Override
     @Nonnull
     public ItemStack extractItem(int slot, int amount, boolean simulate) {
@@ -222,7 +342,7 @@ public class ItemHandlerSimple extends AbstractInvItemTransactor
             }
             ItemStack split = current.split(max);
             if (current.getCount() <= 0) {
-                stacks.set(slot, StackUtil.EMPTY);
+                setStackInternal(slot, StackUtil.EMPTY);
             }
             if (callback != null) {
                 callback.onStackChange(this, slot, before, stacks.get(slot));
@@ -240,6 +360,10 @@ public class ItemHandlerSimple extends AbstractInvItemTransactor
         }
         ItemStack before = stacks.get(slot);
         setStackInternal(slot, stack);
+        if (slotIndex != null) {
+            // The caller still has the stack, so can change it in place
+            slotIndex.markSuspect(slot);
+        }
         if (callback != null) {
             callback.onStackChange(this, slot, before, asValid(stack));
         }
@@ -256,6 +380,9 @@ public class ItemHandlerSimple extends AbstractInvItemTransactor
 
     private void setStackInternal(int slot, @Nonnull ItemStack stack) {
         stacks.set(slot, asValid(stack));
+        if (slotIndex != null) {
+            slotIndex.onSet(slot, asValid(stack));
+        }
         // Transactor calc
         if (stack.isEmpty() && firstUsed == slot) {
             for (int s = firstUsed; s < getSlots(); s++) {
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+package ct.buildcraft.lib.tile.item;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+
+import ct.buildcraft.lib.misc.ItemStackKey;
+
+import it.unimi.dsi.fastutil.ints.IntAVLTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSets;
+import net.minecraft.world.item.ItemStack;
+
+/** Tracks which slots of an {@link ItemHandlerSimple} hold each kind of item (keyed by an {@link ItemStackKey} with a
+ * count of 1), and which slots are empty. This means that finding where a stack can merge, or which slots hold an item,
+ * doesn't need to look through every slot.
+ * <p>
+ * The handler updates this whenever it sets a slot. However the stacks themselves can be changed in place by anything
+ * that got them from {@link ItemHandlerSimple#getStackInSlot(int)}, so the handler marks every slot that it hands out
+ * with {@link #markSuspect(int)}, and calls {@link #validateSuspect(List)} before relying on the index. That only
+ * re-checks the slots that were handed out since the last check, rather than every slot. */
+public final class ItemSlotIndex {
+    /** The key for each slot, or null if the slot is empty. */
+    private final ItemStackKey[] slotKeys;
+    private final Map<ItemStackKey, IntSortedSet> slotsByKey = new HashMap<>();
+    private final BitSet emptySlots;
+    /** Slots whose stack may have been changed in place since they were last checked. */
+    private final BitSet suspectSlots;
+
+    ItemSlotIndex(List<ItemStack> stacks) {
+        slotKeys = new ItemStackKey[stacks.size()];
+        emptySlots = new BitSet(stacks.size());
+        emptySlots.set(0, stacks.size());
+        suspectSlots = new BitSet(stacks.size());
+        validate(stacks);
+    }
+
+    /** @return The key that would be used to index the given (non-empty) stack. */
+    public static ItemStackKey getKey(@Nonnull ItemStack stack) {
+        if (stack.getCount() == 1) {
+            return new ItemStackKey(stack);
+        }
+        ItemStack single = stack.copy();
+        single.setCount(1);
+        return new ItemStackKey(single);
+    }
+
+    void onSet(int slot, @Nonnull ItemStack stack) {
+        ItemStackKey old = slotKeys[slot];
+        if (stack.isEmpty()) {
+            if (old != null) {
+                removeSlot(old, slot);
+                slotKeys[slot] = null;
+            }
+            emptySlots.set(slot);
+            return;
+        }
+        emptySlots.clear(slot);
+        if (old != null) {
+            if (ItemStack.isSameItemSameTags(old.baseStack, stack)) {
+                // Only the count changed
+                return;
+            }
+            removeSlot(old, slot);
+        }
+        ItemStackKey key = getKey(stack);
+        slotKeys[slot] = key;
+        slotsByKey.computeIfAbsent(key, k -> new IntAVLTreeSet()).add(slot);
+    }
+
+    private void removeSlot(ItemStackKey key, int slot) {
+        IntSortedSet slots = slotsByKey.get(key);
+        if (slots != null) {
+            slots.remove(slot);
+            if (slots.isEmpty()) {
+                slotsByKey.remove(key);
+            }
+        }
+    }
+
+    /** Marks the given slot as one whose stack might be changed in place (because it was handed out), so that it is
+     * checked by the next {@link #validateSuspect(List)}. */
+    void markSuspect(int slot) {
+        suspectSlots.set(slot);
+    }
+
+    /** Checks every slot marked with {@link #markSuspect(int)} against the given stacks, and fixes any that were changed
+     * without going through the handler.
+     *
+     * @return True if anything had to be fixed. */
+    boolean validateSuspect(List<ItemStack> stacks) {
+        boolean changed = false;
+        for (int slot = suspectSlots.nextSetBit(0); slot >= 0; slot = suspectSlots.nextSetBit(slot + 1)) {
+            changed |= validateSlot(slot, stacks.get(slot));
+        }
+        suspectSlots.clear();
+        return changed;
+    }
+
+    /** Checks every slot against the given stacks, and fixes any that were changed without going through the handler.
+     * This is only needed when the stacks could have been changed in ways that the handler can't see.
+     *
+     * @return True if anything had to be fixed. */
+    boolean validate(List<ItemStack> stacks) {
+        boolean changed = false;
+        for (int slot = 0; slot < slotKeys.length; slot++) {
+            changed |= validateSlot(slot, stacks.get(slot));
+        }
+        suspectSlots.clear();
+        return changed;
+    }
+
+    private boolean validateSlot(int slot, ItemStack stack) {
+        ItemStackKey key = slotKeys[slot];
+        boolean valid;
+        if (stack.isEmpty()) {
+            valid = key == null && emptySlots.get(slot);
+        } else {
+            valid = key != null && ItemStack.isSameItemSameTags(key.baseStack, stack);
+        }
+        if (!valid) {
+            onSet(slot, stack);
+        }
+        return !valid;
+    }
+
+    /** @return The slots that hold the same item (and tag) as the given stack, in ascending order. */
+    public IntSortedSet getSlots(@Nonnull ItemStack stack) {
+        if (stack.isEmpty()) {
+            return IntSortedSets.EMPTY_SET;
+        }
+        IntSortedSet slots = slotsByKey.get(getKey(stack));
+        return slots == null ? IntSortedSets.EMPTY_SET : IntSortedSets.unmodifiable(slots);
+    }
+
+    /** @return The slots that hold each kind of item in the handler. */
+    Collection<IntSortedSet> getAllSlots() {
+        return slotsByKey.values();
+    }
+
+    /** @return The first empty slot at or after the given slot, or -1 if there are none. */
+    public int nextEmptySlot(int from) {
+        int slot = emptySlots.nextSetBit(from);
+        return slot >= slotKeys.length ? -1 : slot;
+    }
+}
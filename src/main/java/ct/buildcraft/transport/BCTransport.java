@@ -12,6 +12,8 @@ import ct.buildcraft.api.BCModules;
 import ct.buildcraft.lib.CreativeTabManager;
 import ct.buildcraft.lib.CreativeTabManager.CreativeTabBC;
 import ct.buildcraft.lib.net.MessageManager;
+import ct.buildcraft.transport.net.MessageChunkPipeItems;
+import ct.buildcraft.transport.net.MessageChunkPipeUpdates;
 import ct.buildcraft.transport.net.MessageMultiPipeItem;
 import com.mojang.logging.LogUtils;
 
@@ -60,6 +62,8 @@ public class BCTransport {
         ModLoadingContext.get().registerConfig(Type.COMMON, BCTransportConfig.config);
         //TEMP
     	MessageManager.registerMessageClass(BCModules.TRANSPORT, MessageMultiPipeItem.class, MessageMultiPipeItem.HANDLER, MessageMultiPipeItem::toBytes, MessageMultiPipeItem::new);
+    	MessageManager.registerMessageClass(BCModules.TRANSPORT, MessageChunkPipeItems.class, MessageChunkPipeItems.HANDLER, MessageChunkPipeItems::toBytes, MessageChunkPipeItems::new);
+    	MessageManager.registerMessageClass(BCModules.TRANSPORT, MessageChunkPipeUpdates.class, MessageChunkPipeUpdates.HANDLER, MessageChunkPipeUpdates::toBytes, MessageChunkPipeUpdates::new);
     	
         MinecraftForge.EVENT_BUS.register(this);
         MinecraftForge.EVENT_BUS.register(BCTransportEventDist.class);
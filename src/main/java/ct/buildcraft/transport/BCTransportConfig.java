@@ -40,13 +40,23 @@ public class BCTransportConfig {
     public static long mjPerItem = MjAPI.MJ;
     public static int baseFlowRate = 10;
     public static boolean fluidPipeColourBorder;
+    public static int contentsDetailDistance = 16;
+    public static int contentsBlobDistance = 32;
+    public static int contentsMaxDistance = 64;
     public static PowerLossMode lossMode = PowerLossMode.DEFAULT;
+    public static boolean kinesisNetworkMode = false;
+    public static boolean fluidSegmentMode = false;
 
     private static IntValue propMjPerMillibucket;
     private static IntValue propMjPerItem;
     private static IntValue propBaseFlowRate;
     private static BooleanValue propFluidPipeColourBorder;
+    private static IntValue propContentsDetailDistance;
+    private static IntValue propContentsBlobDistance;
+    private static IntValue propContentsMaxDistance;
     private static EnumValue<PowerLossMode> propLossMode;
+    private static BooleanValue propKinesisNetworkMode;
+    private static BooleanValue propFluidSegmentMode;
 
     public static void preInit() {
     	ForgeConfigSpec.Builder con_config = new ForgeConfigSpec.Builder();
@@ -63,10 +73,29 @@ public class BCTransportConfig {
         con_config.push("display");
         propFluidPipeColourBorder = con_config.worldRestart()
         		.define("pipes.fluidColourIsBorder",true);
+        propContentsDetailDistance = con_config
+        		.comment("Pipes closer than this many blocks render every item, fluid and power section inside them.")
+        		.defineInRange("pipes.contentsDetailDistance", contentsDetailDistance, 0, 256);
+        propContentsBlobDistance = con_config
+        		.comment("Pipes closer than this many blocks (but further than contentsDetailDistance) render their"
+        			+ " contents as a single box.")
+        		.defineInRange("pipes.contentsBlobDistance", contentsBlobDistance, 0, 256);
+        propContentsMaxDistance = con_config
+        		.comment("Pipes further away than this many blocks don't render their contents at all. Pipes between"
+        			+ " contentsBlobDistance and this only show a single quad if they contain anything.")
+        		.defineInRange("pipes.contentsMaxDistance", contentsMaxDistance, 0, 256);
         con_config.pop();
         con_config.push("experimental");
         propLossMode = con_config.worldRestart()
         		.defineEnum("kinesisLossMode", PowerLossMode.LOSSLESS, PowerLossMode.values());
+        propKinesisNetworkMode = con_config
+        		.comment("If true then connected kinesis pipes move power from sources to receivers in a single step"
+        			+ " per tick, instead of passing it along one pipe at a time.")
+        		.define("kinesisNetworkMode", false);
+        propFluidSegmentMode = con_config
+        		.comment("If true then long runs of plain fluid pipes are merged into a single segment that moves fluid"
+        			+ " once per tick, instead of every pipe moving fluid on its own.")
+        		.define("fluidSegmentMode", false);
 
         config = con_config.build();
         MinecraftForge.EVENT_BUS.register(BCTransportConfig.class);
@@ -90,8 +119,13 @@ public class BCTransportConfig {
     	fluidPipeColourBorder = propFluidPipeColourBorder.get();
     	PipeApi.flowFluids.fallbackColourType =
     		fluidPipeColourBorder ? EnumPipeColourType.BORDER_INNER : EnumPipeColourType.TRANSLUCENT;
+    	contentsMaxDistance = propContentsMaxDistance.get();
+    	contentsBlobDistance = Math.min(propContentsBlobDistance.get(), contentsMaxDistance);
+    	contentsDetailDistance = Math.min(propContentsDetailDistance.get(), contentsBlobDistance);
 
     	lossMode = propLossMode.get();
+    	kinesisNetworkMode = propKinesisNetworkMode.get();
+    	fluidSegmentMode = propFluidSegmentMode.get();
 
     	fluidTransfer(BCTransportPipes.cobbleFluid, baseFlowRate, 10);
     	fluidTransfer(BCTransportPipes.woodFluid, baseFlowRate, 10);
@@ -13,6 +13,7 @@ import ct.buildcraft.transport.client.gui.ScreenPipeDiamond;
 import ct.buildcraft.transport.client.gui.ScreenPipeDiawood;
 import ct.buildcraft.transport.client.model.PipeBaseModelGenStandard;
 import ct.buildcraft.transport.net.PipeItemMessageQueue;
+import ct.buildcraft.transport.net.PipeUpdateMessageQueue;
 import ct.buildcraft.transport.wire.WorldSavedDataWireSystems;
 
 import net.minecraft.client.Minecraft;
@@ -88,6 +89,7 @@ public class BCTransportEventDist {
     @SubscribeEvent
     public static void onServerTick(TickEvent.ServerTickEvent event) {
         PipeItemMessageQueue.serverTick();
+        PipeUpdateMessageQueue.serverTick();
     }
 
     @SubscribeEvent
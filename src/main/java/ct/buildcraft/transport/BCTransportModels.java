@@ -17,6 +17,7 @@ import ct.buildcraft.transport.client.model.ModelPipe;
 import ct.buildcraft.transport.client.model.ModelPipeItem;
 import ct.buildcraft.transport.client.model.key.KeyPlugBlocker;
 import ct.buildcraft.transport.client.model.key.KeyPlugPowerAdaptor;
+import ct.buildcraft.transport.client.render.PipeContentsDetail;
 import ct.buildcraft.transport.client.render.PipeFlowRendererFluids;
 import ct.buildcraft.transport.client.render.PipeFlowRendererItems;
 import ct.buildcraft.transport.client.render.PipeFlowRendererPower;
@@ -109,6 +110,9 @@ public class BCTransportModels {
         
         putModel(event, "plug_blocker#inventory", blocker);//new ModelPluggableItem(BLOCKER.getCutoutQuads()));
         putModel(event, "plug_power_adaptor#inventory", adaptor);
+
+        PipeFlowRendererItems.onModelBake();
+        PipeContentsDetail.onModelBake();
     	
 
     }
@@ -100,6 +100,21 @@ public class BlockPipeHolder extends BlockBCTile_Neptune implements ICustomPaint
 	private static final VoxelShape BOX_WEST = Shapes.box(0, 0.25D, 0.25D, 0.25D, 0.75D, 0.75D);
 	private static final VoxelShape BOX_EAST = Shapes.box(0.75D, 0.25D, 0.25D, 1D, 0.75D, 0.75D);
 	private static final VoxelShape[] BOX_FACES = { BOX_DOWN, BOX_UP, BOX_NORTH, BOX_SOUTH, BOX_WEST, BOX_EAST };
+
+	/** Map of [bit mask of connected faces, by ordinal] -> [shape of the centre and those connections]. */
+	private static final VoxelShape[] CONNECTION_SHAPES = new VoxelShape[1 << 6];
+
+	static {
+		for (int mask = 0; mask < CONNECTION_SHAPES.length; mask++) {
+			VoxelShape shape = BOX_CENTER;
+			for (Direction face : Direction.values()) {
+				if ((mask & (1 << face.ordinal())) != 0) {
+					shape = Shapes.or(shape, BOX_FACES[face.get3DDataValue()]);
+				}
+			}
+			CONNECTION_SHAPES[mask] = shape.optimize();
+		}
+	}
 	
 	private static final SingleSpriteSet spriteSet = new SingleSpriteSet(null);
 
@@ -116,7 +131,7 @@ public class BlockPipeHolder extends BlockBCTile_Neptune implements ICustomPaint
 	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(Level lev, BlockState bs, BlockEntityType<T> bet) {
 		return bet == BCTransportBlocks.PIPE_HOLDER_BE.get() ? ($0, pos, $1, BlockEntity) -> {
 			if (BlockEntity instanceof TilePipeHolder) {
-				((TilePipeHolder) BlockEntity).update();
+				((TilePipeHolder) BlockEntity).updateIfAwake();
 			}
 		} : null;
 	}
@@ -432,46 +447,44 @@ public class BlockPipeHolder extends BlockBCTile_Neptune implements ICustomPaint
 		if (tile == null) {
 			return BOX_CENTER;
 		}
+		return tile.shapeCache.get(tile);
+	}
+
+	/** Builds the full shape of the given pipe. Use {@link PipeShapeCache#get(TilePipeHolder)} rather than calling this
+	 * directly. */
+	static VoxelShape computeInteractionShape(TilePipeHolder tile) {
 		Pipe pipe = tile.getPipe();
 		VoxelShape shape = BOX_CENTER;
-		boolean computed = false;
 		if (pipe != Pipe.EMPTY) {
-			computed = true;
+			int mask = 0;
 			for (Direction face : Direction.values()) {
 				float conSize = pipe.getConnectedDist(face);
-				if (conSize > 0) {
-					VoxelShape aabb = BOX_FACES[face.get3DDataValue()];
-					if (conSize != 0.25f) {
-						Vec3 center = VecUtil.offset(new Vec3(0.5, 0.5, 0.5), face, 0.25 + (conSize / 2));
-						Vec3 radius = new Vec3(0.25, 0.25, 0.25);
-						radius = VecUtil.replaceValue(radius, face.getAxis(), conSize / 2);
-						Vec3 min = center.subtract(radius);
-						Vec3 max = center.add(radius);
-						aabb = Shapes.create(BoundingBoxUtil.makeFrom(min, max));
-					}
-					shape = Shapes.or(shape, aabb);
+				if (conSize == 0.25f) {
+					mask |= 1 << face.ordinal();
+				} else if (conSize > 0) {
+					Vec3 center = VecUtil.offset(new Vec3(0.5, 0.5, 0.5), face, 0.25 + (conSize / 2));
+					Vec3 radius = new Vec3(0.25, 0.25, 0.25);
+					radius = VecUtil.replaceValue(radius, face.getAxis(), conSize / 2);
+					Vec3 min = center.subtract(radius);
+					Vec3 max = center.add(radius);
+					shape = Shapes.or(shape, Shapes.create(BoundingBoxUtil.makeFrom(min, max)));
 				}
 			}
+			shape = shape == BOX_CENTER ? CONNECTION_SHAPES[mask] : Shapes.or(shape, CONNECTION_SHAPES[mask]);
 		}
 		for (Direction face : Direction.values()) {
 			PipePluggable pluggable = tile.getPluggable(face);
 			if (pluggable != PipePluggable.EMPTY) {
-				VoxelShape bb = pluggable.getBoundingBox();
-				shape = Shapes.or(shape, bb);
-				computed = true;
+				shape = Shapes.or(shape, pluggable.getBoundingBox());
 			}
 		}
 		for (EnumWirePart part : tile.getWireManager().parts.keySet()) {
 			shape = Shapes.or(shape, part.boundingBox);
-			computed = true;
 		}
 		for (EnumWireBetween between : tile.getWireManager().betweens.keySet()) {
 			shape = Shapes.or(shape, between.boundingBox);
-			computed = true;
 		}
-		if (computed)
-			return shape;
-		return BOX_CENTER;
+		return shape;
 	}
 
 	// @Override
@@ -526,6 +539,7 @@ public class BlockPipeHolder extends BlockBCTile_Neptune implements ICustomPaint
 		TilePipeHolder tile = getPipe(world, pos, false);
 		if (tile == null)
 			return InteractionResult.PASS;
+		tile.wakeUp();
 		Vec3 carmpos = player.getEyePosition();
 		Vec3 location = re.getLocation();
 		BCBlockHitResult trace = rayTrace(world, pos, carmpos, location.add(location.subtract(carmpos).normalize()));
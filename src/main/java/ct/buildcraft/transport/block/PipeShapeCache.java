@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team This Source Code Form is subject to the terms of the Mozilla
+ * Public License, v. 2.0. If a copy of the MPL was not distributed with this file, You can obtain one at
+ * https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.transport.block;
+
+import ct.buildcraft.api.transport.EnumWirePart;
+import ct.buildcraft.api.transport.pluggable.PipePluggable;
+import ct.buildcraft.transport.pipe.Pipe;
+import ct.buildcraft.transport.tile.TilePipeHolder;
+import ct.buildcraft.transport.wire.EnumWireBetween;
+
+import net.minecraft.core.Direction;
+import net.minecraft.world.phys.shapes.VoxelShape;
+
+/** Caches the shape of a single {@link TilePipeHolder}, as returned by
+ * {@link BlockPipeHolder#getInteractionShape}. Collision checks ask for this shape far more often than it changes, so
+ * it is only rebuilt when the connections, pluggables or wires of the pipe are different to the last time it was
+ * built. */
+public final class PipeShapeCache {
+    private VoxelShape shape;
+    private final float[] connections = new float[6];
+    private final PipePluggable[] pluggables = new PipePluggable[6];
+    /** Bits 0-7 are the {@link EnumWirePart}s, and bits 8 and up are the {@link EnumWireBetween}s. */
+    private long wires;
+
+    public VoxelShape get(TilePipeHolder tile) {
+        if (shape == null || !matches(tile)) {
+            store(tile);
+            shape = BlockPipeHolder.computeInteractionShape(tile);
+        }
+        return shape;
+    }
+
+    private boolean matches(TilePipeHolder tile) {
+        Pipe pipe = tile.getPipe();
+        for (Direction face : Direction.values()) {
+            int i = face.ordinal();
+            float dist = pipe == Pipe.EMPTY ? 0 : pipe.getConnectedDist(face);
+            if (connections[i] != dist || pluggables[i] != tile.getPluggable(face)) {
+                return false;
+            }
+        }
+        return wires == getWireKey(tile);
+    }
+
+    private void store(TilePipeHolder tile) {
+        Pipe pipe = tile.getPipe();
+        for (Direction face : Direction.values()) {
+            int i = face.ordinal();
+            connections[i] = pipe == Pipe.EMPTY ? 0 : pipe.getConnectedDist(face);
+            pluggables[i] = tile.getPluggable(face);
+        }
+        wires = getWireKey(tile);
+    }
+
+    private static long getWireKey(TilePipeHolder tile) {
+        long key = 0;
+        for (EnumWirePart part : tile.getWireManager().parts.keySet()) {
+            key |= 1L << part.ordinal();
+        }
+        for (EnumWireBetween between : tile.getWireManager().betweens.keySet()) {
+            key |= 1L << (EnumWirePart.VALUES.length + between.ordinal());
+        }
+        return key;
+    }
+}
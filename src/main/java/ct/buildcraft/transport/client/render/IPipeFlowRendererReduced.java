@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.transport.client.render;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+
+import ct.buildcraft.api.transport.pipe.IPipeFlowRenderer;
+import ct.buildcraft.api.transport.pipe.PipeFlow;
+
+import net.minecraft.client.renderer.MultiBufferSource;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+/** A flow renderer that can also render pipes that are further away with less detail. Renderers that don't implement
+ * this are always rendered with full detail (up until {@link PipeContentsDetail#NONE}). */
+@OnlyIn(Dist.CLIENT)
+public interface IPipeFlowRendererReduced<F extends PipeFlow> extends IPipeFlowRenderer<F> {
+    /** Renders the given flow with less detail. The cost of this should not depend on how much is in the pipe.
+     *
+     * @param detail Either {@link PipeContentsDetail#BLOB} or {@link PipeContentsDetail#INDICATOR}. */
+    void renderReduced(F flow, PipeContentsDetail detail, float partialTicks, PoseStack matrix,
+        MultiBufferSource buffer, int combinedLight, int combinedOverlay);
+}
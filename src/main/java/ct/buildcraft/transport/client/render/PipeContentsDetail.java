@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.transport.client.render;
+
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import com.mojang.math.Matrix3f;
+import com.mojang.math.Matrix4f;
+import com.mojang.math.Vector3f;
+
+import ct.buildcraft.api.core.render.ISprite;
+import ct.buildcraft.lib.client.model.ModelUtil;
+import ct.buildcraft.lib.client.model.ModelUtil.UvFaceData;
+import ct.buildcraft.lib.client.model.MutableQuad;
+import ct.buildcraft.transport.BCTransportConfig;
+import ct.buildcraft.transport.BCTransportSprites;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.api.distmarker.OnlyIn;
+
+/** How much detail the contents of a pipe are rendered with, depending on how far away the pipe is from the camera.
+ * The distances are set in {@link BCTransportConfig}. */
+@OnlyIn(Dist.CLIENT)
+public enum PipeContentsDetail {
+    /** Everything is rendered normally. */
+    FULL,
+    /** All of the contents are merged into a single box in the centre of the pipe. */
+    BLOB,
+    /** A single quad that only shows that something is in the pipe. */
+    INDICATOR,
+    /** Nothing is rendered. */
+    NONE;
+
+    /** Unit sized faces of a box centred on the origin, textured with the coloured item box. */
+    private static final MutableQuad[] BOX_QUADS = new MutableQuad[6];
+    private static final MutableQuad SCRATCH_QUAD = new MutableQuad();
+
+    public static PipeContentsDetail forPipe(BlockPos pos) {
+        Vec3 camera = Minecraft.getInstance().gameRenderer.getMainCamera().getPosition();
+        double dx = pos.getX() + 0.5 - camera.x;
+        double dy = pos.getY() + 0.5 - camera.y;
+        double dz = pos.getZ() + 0.5 - camera.z;
+        return forDistanceSq(dx * dx + dy * dy + dz * dz);
+    }
+
+    public static PipeContentsDetail forDistanceSq(double distanceSq) {
+        if (distanceSq <= square(BCTransportConfig.contentsDetailDistance)) {
+            return FULL;
+        }
+        if (distanceSq <= square(BCTransportConfig.contentsBlobDistance)) {
+            return BLOB;
+        }
+        if (distanceSq <= square(BCTransportConfig.contentsMaxDistance)) {
+            return INDICATOR;
+        }
+        return NONE;
+    }
+
+    private static double square(int value) {
+        return value * (double) value;
+    }
+
+    public static void onModelBake() {
+        Vector3f center = new Vector3f();
+        Vector3f radius = new Vector3f(1, 1, 1);
+
+        ISprite sprite = BCTransportSprites.COLOUR_ITEM_BOX;
+        UvFaceData uvs = new UvFaceData();
+        uvs.minU = (float) sprite.getInterpU(0);
+        uvs.maxU = (float) sprite.getInterpU(1);
+        uvs.minV = (float) sprite.getInterpV(0);
+        uvs.maxV = (float) sprite.getInterpV(1);
+
+        for (Direction face : Direction.values()) {
+            MutableQuad q = ModelUtil.createFace(face, center, radius, uvs);
+            q.setCalculatedDiffuse();
+            BOX_QUADS[face.ordinal()] = q;
+        }
+    }
+
+    /** Renders a box in the centre of the pipe. Used for {@link #BLOB}.
+     *
+     * @param radius The radius of the box, which should be no more than 0.25 to stay inside the pipe.
+     * @param rgb The colour of the box. */
+    public static void renderBlob(PoseStack matrix, VertexConsumer bb, float radius, int rgb, int light) {
+        if (BOX_QUADS[0] == null) {
+            return;
+        }
+        matrix.pushPose();
+        matrix.translate(0.5, 0.5, 0.5);
+        matrix.scale(radius, radius, radius);
+        Matrix4f pose = matrix.last().pose();
+        Matrix3f normal = matrix.last().normal();
+        for (MutableQuad q : BOX_QUADS) {
+            renderQuad(q, pose, normal, bb, rgb, light);
+        }
+        matrix.popPose();
+    }
+
+    /** Renders a single upwards facing quad just below the top of the pipe. Used for {@link #INDICATOR}. */
+    public static void renderIndicator(PoseStack matrix, VertexConsumer bb, int rgb, int light) {
+        if (BOX_QUADS[0] == null) {
+            return;
+        }
+        matrix.pushPose();
+        matrix.translate(0.5, 0.5, 0.5);
+        matrix.scale(0.24f, 0.24f, 0.24f);
+        MutableQuad q = BOX_QUADS[Direction.UP.ordinal()];
+        renderQuad(q, matrix.last().pose(), matrix.last().normal(), bb, rgb, light);
+        matrix.popPose();
+    }
+
+    private static void renderQuad(MutableQuad q, Matrix4f pose, Matrix3f normal, VertexConsumer bb, int rgb,
+        int light) {
+        SCRATCH_QUAD.copyFrom(q);
+        SCRATCH_QUAD.lighti(light);
+        SCRATCH_QUAD.multColouri((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF, 255);
+        SCRATCH_QUAD.render(pose, normal, bb);
+    }
+}
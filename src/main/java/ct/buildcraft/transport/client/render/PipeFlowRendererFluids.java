@@ -7,7 +7,6 @@
 package ct.buildcraft.transport.client.render;
 
 import ct.buildcraft.api.core.EnumPipePart;
-import ct.buildcraft.api.transport.pipe.IPipeFlowRenderer;
 import ct.buildcraft.api.transport.pipe.IPipeHolder;
 import ct.buildcraft.lib.client.render.fluid.FluidRenderer;
 import ct.buildcraft.lib.client.render.fluid.FluidSpriteType;
@@ -25,10 +24,11 @@ import net.minecraft.world.level.LightLayer;
 import net.minecraft.world.phys.Vec3;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
+import net.minecraftforge.client.extensions.common.IClientFluidTypeExtensions;
 import net.minecraftforge.fluids.FluidStack;
 
 @OnlyIn(Dist.CLIENT)
-public enum PipeFlowRendererFluids implements IPipeFlowRenderer<PipeFlowFluids> {
+public enum PipeFlowRendererFluids implements IPipeFlowRendererReduced<PipeFlowFluids> {
 	INSTANCE;
 
 	private static final boolean[] sides = { true, true, true, true, true, true };
@@ -44,11 +44,7 @@ public enum PipeFlowRendererFluids implements IPipeFlowRenderer<PipeFlowFluids>
 		double[] amounts = flow.getAmountsForRender(partialTicks);
 		Vec3[] offsets = flow.getOffsetsForRender(partialTicks);
 
-		int blocklight = forRender.getFluid().getFluidType().getLightLevel();// to debug
-		IPipeHolder holder = flow.pipe.getHolder();
-		int combinedLight = holder.getPipeWorld().getBrightness(LightLayer.SKY, holder.getPipePos())<<20|blocklight<<4 ;
-
-		FluidRenderer.vertex.lighti(combinedLight);
+		FluidRenderer.vertex.lighti(getLight(flow, forRender));
 
 		boolean gas = forRender.getFluid().getFluidType().getDensity() <= 0;
 		boolean horizontal = false;
@@ -125,4 +121,36 @@ public enum PipeFlowRendererFluids implements IPipeFlowRenderer<PipeFlowFluids>
 		}
 
 	}
+
+	@Override
+	public void renderReduced(PipeFlowFluids flow, PipeContentsDetail detail, float partialTicks, PoseStack matrix,
+			MultiBufferSource buffer, int lightc, int combinedOverlay) {
+		FluidStack forRender = flow.getFluidStackForRender();
+		if (forRender == null) {
+			return;
+		}
+		VertexConsumer fluidBuffer = buffer.getBuffer(RenderType.cutoutMipped());
+		int light = getLight(flow, forRender);
+		if (detail == PipeContentsDetail.BLOB) {
+			// Just the centre section, filled to the average of every section
+			double[] amounts = flow.getAmountsForRender(partialTicks);
+			double total = 0;
+			for (double amount : amounts) {
+				total += amount;
+			}
+			FluidRenderer.vertex.lighti(light);
+			Vec3 min = new Vec3(0.26, 0.26, 0.26);
+			Vec3 max = new Vec3(0.74, 0.74, 0.74);
+			FluidRenderer.renderFluid(FluidSpriteType.FROZEN, forRender, total / amounts.length, flow.capacity, min, max, fluidBuffer, matrix.last(), sides);
+		} else {
+			int colour = IClientFluidTypeExtensions.of(forRender.getFluid()).getTintColor(forRender);
+			PipeContentsDetail.renderIndicator(matrix, fluidBuffer, colour, light);
+		}
+	}
+
+	private static int getLight(PipeFlowFluids flow, FluidStack forRender) {
+		int blocklight = forRender.getFluid().getFluidType().getLightLevel();// to debug
+		IPipeHolder holder = flow.pipe.getHolder();
+		return holder.getPipeWorld().getBrightness(LightLayer.SKY, holder.getPipePos())<<20|blocklight<<4 ;
+	}
 }
@@ -7,10 +7,9 @@
 package ct.buildcraft.transport.client.render;
 
 import java.util.List;
+import java.util.Map;
 
-import ct.buildcraft.api.core.BCLog;
 import ct.buildcraft.api.core.render.ISprite;
-import ct.buildcraft.api.transport.pipe.IPipeFlowRenderer;
 import ct.buildcraft.lib.client.model.ModelUtil;
 import ct.buildcraft.lib.client.model.ModelUtil.UvFaceData;
 import ct.buildcraft.lib.client.model.MutableQuad;
@@ -24,12 +23,15 @@ import com.mojang.math.Matrix3f;
 import com.mojang.math.Matrix4f;
 import com.mojang.math.Vector3f;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.block.model.ItemOverrides;
 import net.minecraft.client.renderer.block.model.ItemTransforms.TransformType;
 import net.minecraft.client.renderer.entity.ItemRenderer;
 import net.minecraft.client.renderer.texture.OverlayTexture;
+import net.minecraft.client.resources.model.BakedModel;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.world.item.ItemStack;
@@ -39,14 +41,25 @@ import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 
 @OnlyIn(Dist.CLIENT)
-public enum PipeFlowRendererItems implements IPipeFlowRenderer<PipeFlowItems> {
+public enum PipeFlowRendererItems implements IPipeFlowRendererReduced<PipeFlowItems> {
 	INSTANCE;
 	
 	private static ItemRenderer itemRender;
 	
     private static final MutableQuad[] COLOURED_QUADS = new MutableQuad[6];
+    /** Reused for every coloured quad, as rendering only reads from it. */
+    private static final MutableQuad SCRATCH_QUAD = new MutableQuad();
+
+    /** The maximum number of models to keep in {@link #MODEL_CACHE} before it is cleared. */
+    private static final int MAX_CACHED_MODELS = 512;
+
+    /** Map of [stack] -> [model], by identity. Every travelling item that shows the same cached stack (see
+     * {@link TravellingItem#clientItemLink}) uses the same instance, so this skips looking up the model for each item
+     * every frame. Models with overrides are never cached as they can depend on the rest of the stack. */
+    private static final Map<ItemStack, BakedModel> MODEL_CACHE = new Reference2ObjectOpenHashMap<>();
 
     public static void onModelBake() {
+        MODEL_CACHE.clear();
         Vector3f center = new Vector3f();
         Vector3f radius = new Vector3f(0.2f, 0.2f, 0.2f);
 
@@ -64,6 +77,24 @@ public enum PipeFlowRendererItems implements IPipeFlowRenderer<PipeFlowItems> {
         }
     }
 
+    /** The colour of the box used for pipes that are too far away to render every item. */
+    private static final int BLOB_COLOUR = 0xD0D0D0;
+
+    private static BakedModel getModel(ItemStack stack) {
+        BakedModel model = MODEL_CACHE.get(stack);
+        if (model == null) {
+            model = itemRender.getModel(stack, null, null, 0);
+            if (model.getOverrides() != ItemOverrides.EMPTY) {
+                return model;
+            }
+            if (MODEL_CACHE.size() >= MAX_CACHED_MODELS) {
+                MODEL_CACHE.clear();
+            }
+            MODEL_CACHE.put(stack, model);
+        }
+        return model;
+    }
+
     @Override
     public void render(PipeFlowItems flow, float partialTicks, PoseStack matrix, MultiBufferSource buffer,
 			int lightc, int combinedOverlay) {
@@ -71,39 +102,65 @@ public enum PipeFlowRendererItems implements IPipeFlowRenderer<PipeFlowItems> {
         Level world = flow.pipe.getHolder().getPipeWorld();
         long now = world.getGameTime();
         List<TravellingItem> toRender = flow.getAllItemsForRender();
+        if (toRender.isEmpty()) {
+            return;
+        }
         
         matrix.translate(0.5f, 0.5f, 0.5f);
 
+        // Every coloured box in this pipe goes into the same buffer
+        VertexConsumer colourBuilder = null;
+
         for (TravellingItem item : toRender) {
             Vec3 pos = item.getRenderPosition(BlockPos.ZERO, now, partialTicks, flow);
 
             ItemStack stack = item.clientItemLink.get();
             if (stack != null && !stack.isEmpty()) {
+                matrix.pushPose();
             	matrix.translate(pos.x, -0.2f+pos.y, pos.z);
-            	itemRender.renderStatic(stack, TransformType.GROUND, lightc, OverlayTexture.NO_OVERLAY, matrix, buffer, 0);
-//                itemRender.getModel(stack, world, null, combinedOverlay);
-                matrix.translate(-pos.x, 0.2f-pos.y, -pos.z);
+            	itemRender.render(stack, TransformType.GROUND, false, matrix, buffer, lightc, OverlayTexture.NO_OVERLAY, getModel(stack));
+                matrix.popPose();
 /*                ItemRenderUtil.renderItemStack(x + pos.x, y + pos.y, z + pos.z, //
                         stack, item.stackSize, lightc, item.getRenderDirection(now, partialTicks), bb);*/
             }
-            if (item.colour != null) {
+            if (item.colour != null && COLOURED_QUADS[0] != null) {
+                if (colourBuilder == null) {
+                    colourBuilder = buffer.getBuffer(RenderType.cutoutMipped());
+                }
+                matrix.pushPose();
                 matrix.translate(pos.x, pos.y, pos.z);
                 Matrix4f pose = matrix.last().pose();
                 Matrix3f normal = matrix.last().normal();
-                VertexConsumer builder = buffer.getBuffer(RenderType.cutoutMipped());
                 int col = ColourUtil.getLightHex(item.colour);
                 int r = (col >> 16) & 0xFF;
                 int g = (col >> 8) & 0xFF;
                 int b = col & 0xFF;
                 for (MutableQuad q : COLOURED_QUADS) {
-                    MutableQuad q2 = new MutableQuad(q);
-                    q2.lighti(lightc);
-                    q2.multColouri(r, g, b, 255);
-                    q2.render(pose, normal, builder);
+                    SCRATCH_QUAD.copyFrom(q);
+                    SCRATCH_QUAD.lighti(lightc);
+                    SCRATCH_QUAD.multColouri(r, g, b, 255);
+                    SCRATCH_QUAD.render(pose, normal, colourBuilder);
                 }
-                matrix.clear();
+                matrix.popPose();
             }
         }
 
     }
+
+    @Override
+    public void renderReduced(PipeFlowItems flow, PipeContentsDetail detail, float partialTicks, PoseStack matrix,
+        MultiBufferSource buffer, int lightc, int combinedOverlay) {
+        int count = flow.getItemCountForRender();
+        if (count == 0) {
+            return;
+        }
+        VertexConsumer builder = buffer.getBuffer(RenderType.cutoutMipped());
+        if (detail == PipeContentsDetail.BLOB) {
+            // Grow the box with the number of items, up to the size of the inside of the pipe
+            float radius = Math.min(0.24f, 0.1f + 0.02f * count);
+            PipeContentsDetail.renderBlob(matrix, builder, radius, BLOB_COLOUR, lightc);
+        } else {
+            PipeContentsDetail.renderIndicator(matrix, builder, BLOB_COLOUR, lightc);
+        }
+    }
 }
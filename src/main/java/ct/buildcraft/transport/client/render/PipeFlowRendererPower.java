@@ -10,7 +10,6 @@ package ct.buildcraft.transport.client.render;
 import java.util.function.Function;
 
 import ct.buildcraft.api.mj.MjAPI;
-import ct.buildcraft.api.transport.pipe.IPipeFlowRenderer;
 import ct.buildcraft.lib.client.model.ModelUtil;
 import ct.buildcraft.lib.client.model.ModelUtil.UvFaceData;
 import ct.buildcraft.lib.client.model.MutableQuad;
@@ -26,6 +25,7 @@ import com.mojang.math.Matrix4f;
 import com.mojang.math.Vector3f;
 
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.renderer.texture.TextureAtlasSprite;
@@ -38,20 +38,27 @@ import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 
 @OnlyIn(Dist.CLIENT)
-public enum PipeFlowRendererPower implements IPipeFlowRenderer<PipeFlowPower> {
+public enum PipeFlowRendererPower implements IPipeFlowRendererReduced<PipeFlowPower> {
     INSTANCE;
 
 	public static TextureAtlasSprite POWER_FLOW_OVERLOAD;
 	public static TextureAtlasSprite POWER_FLOW;
-	
-    @Override
-	public void render(PipeFlowPower flow, float partialTicks, PoseStack matrix, MultiBufferSource buffer,
-			int combinedLight, int combinedOverlay) {
+
+	/** The colour of the quad used for pipes that are too far away to render the power sections. */
+	private static final int INDICATOR_COLOUR = 0xFFD040;
+
+	private static void loadSprites() {
     	if(POWER_FLOW_OVERLOAD == null || POWER_FLOW == null) {
     		Function<ResourceLocation, TextureAtlasSprite> atlas = Minecraft.getInstance().getTextureAtlas(InventoryMenu.BLOCK_ATLAS);
     		POWER_FLOW_OVERLOAD = atlas.apply(new ResourceLocation("buildcrafttransport:pipes/power_flow_overload"));
     		POWER_FLOW = atlas.apply(new ResourceLocation("buildcrafttransport:pipes/power_flow"));
     	}
+	}
+	
+    @Override
+	public void render(PipeFlowPower flow, float partialTicks, PoseStack matrix, MultiBufferSource buffer,
+			int combinedLight, int combinedOverlay) {
+    	loadSprites();
     	Pose p = matrix.last();
     	Matrix4f pose = p.pose();
     	Matrix3f normal = p.normal();
@@ -81,6 +88,26 @@ public enum PipeFlowRendererPower implements IPipeFlowRenderer<PipeFlowPower> {
 
 	}
 
+    @Override
+    public void renderReduced(PipeFlowPower flow, PipeContentsDetail detail, float partialTicks, PoseStack matrix,
+        MultiBufferSource buffer, int combinedLight, int combinedOverlay) {
+        double centrePower = 0;
+        for (Direction side : Direction.values()) {
+            centrePower = Math.max(centrePower, flow.getSection(side).displayPower / (double) MjAPI.MJ);
+        }
+        if (centrePower <= 0) {
+            return;
+        }
+        VertexConsumer bb = buffer.getBuffer(RenderType.cutout());
+        if (detail == PipeContentsDetail.BLOB) {
+            loadSprites();
+            Pose p = matrix.last();
+            renderCentrePower(centrePower, flow.clientDisplayFlowCentre, p.pose(), p.normal(), bb);
+        } else {
+            PipeContentsDetail.renderIndicator(matrix, bb, INDICATOR_COLOUR, LightTexture.FULL_BRIGHT);
+        }
+    }
+
     private static void renderSidePower(Direction side, double power, double centrePower, double offset, Matrix4f pose, Matrix3f normal,
         VertexConsumer bb) {
         if (power < 0) {
@@ -10,6 +10,7 @@ import ct.buildcraft.api.transport.pipe.IPipeFlowRenderer;
 import ct.buildcraft.api.transport.pipe.PipeFlow;
 import ct.buildcraft.api.transport.pluggable.IPlugDynamicRenderer;
 import ct.buildcraft.api.transport.pluggable.PipePluggable;
+import ct.buildcraft.transport.BCTransportConfig;
 import ct.buildcraft.transport.client.PipeRegistryClient;
 import ct.buildcraft.transport.pipe.Pipe;
 import ct.buildcraft.transport.tile.TilePipeHolder;
@@ -44,11 +45,21 @@ public class RenderPipeHolder implements BlockEntityRenderer<TilePipeHolder> {
 		if(p == Pipe.EMPTY) return;
 		matrix.pushPose();
         float conSize = 0;
-        renderContents(pipe, partialTicks, matrix, buffer, combinedLight, combinedOverlay);
+        PipeContentsDetail detail = PipeContentsDetail.forPipe(pipe.getBlockPos());
+        if (detail != PipeContentsDetail.NONE) {
+            renderContents(pipe, detail, partialTicks, matrix, buffer, combinedLight, combinedOverlay);
+        }
         renderPluggables(pipe, conSize, matrix, buffer, combinedOverlay, combinedOverlay);
 		matrix.popPose();
 		
 	}
+
+	@Override
+	public int getViewDistance() {
+		// Pluggables are still rendered to the normal distance, even if contents aren't
+		return Math.max(BlockEntityRenderer.super.getViewDistance(), BCTransportConfig.contentsMaxDistance);
+	}
+
     private static void renderPluggables(TilePipeHolder pipe,  float partialTicks, PoseStack matrix, MultiBufferSource buffer,
 			int combinedLight, int combinedOverlay) {
         for (Direction face : Direction.values()) {
@@ -68,27 +79,43 @@ public class RenderPipeHolder implements BlockEntityRenderer<TilePipeHolder> {
         }
     }
 
-    private static void renderContents(TilePipeHolder pipe, float partialTicks, PoseStack matrix, MultiBufferSource buffer,
+    private static void renderContents(TilePipeHolder pipe, PipeContentsDetail detail, float partialTicks, PoseStack matrix, MultiBufferSource buffer,
 			int combinedLight, int combinedOverlay) {
         Pipe p = pipe.getPipe();
         if (p == null) {
             return;
         }
         if (p.flow != null) {
-            renderFlow(p.flow,  partialTicks, matrix, buffer, combinedLight, combinedOverlay);
+            renderFlow(p.flow, detail, partialTicks, matrix, buffer, combinedLight, combinedOverlay);
         }
 /*        if (p.behaviour != null) {
             renderBehaviour(p.behaviour, x, y, z, partialTicks, bb);
         }*/
     }
 
-    private static <F extends PipeFlow> void renderFlow(F flow, float partialTicks, PoseStack matrix, MultiBufferSource buffer,
+    private static <F extends PipeFlow> void renderFlow(F flow, PipeContentsDetail detail, float partialTicks, PoseStack matrix, MultiBufferSource buffer,
 			int combinedLight, int combinedOverlay) {
         IPipeFlowRenderer<F> renderer = PipeRegistryClient.getFlowRenderer(flow);
-        if (renderer != null) {
+        if (renderer == null) {
+            return;
+        }
+        IPipeFlowRendererReduced<F> reduced = detail == PipeContentsDetail.FULL ? null : asReduced(renderer);
+        if (reduced != null) {
+            reduced.renderReduced(flow, detail, partialTicks, matrix, buffer, combinedLight, combinedOverlay);
+        } else {
             renderer.render(flow, partialTicks, matrix, buffer, combinedLight, combinedOverlay);
         }
     }
+
+    /** Renderers are registered against the flow's class, so a reduced renderer always renders the same type of flow as
+     * the renderer it was registered as. */
+    @SuppressWarnings("unchecked")
+    private static <F extends PipeFlow> IPipeFlowRendererReduced<F> asReduced(IPipeFlowRenderer<F> renderer) {
+        if (renderer instanceof IPipeFlowRendererReduced) {
+            return (IPipeFlowRendererReduced<F>) renderer;
+        }
+        return null;
+    }
 /*
     private static <B extends PipeBehaviour> void renderBehaviour(B behaviour, double x, double y, double z,
         float partialTicks, BufferBuilder bb) {
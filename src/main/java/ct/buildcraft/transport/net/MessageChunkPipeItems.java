@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.transport.net;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import ct.buildcraft.api.transport.pipe.IPipe;
+import ct.buildcraft.api.transport.pipe.IPipeHolder;
+import ct.buildcraft.api.transport.pipe.PipeFlow;
+import ct.buildcraft.lib.net.PacketBufferBC;
+import ct.buildcraft.transport.net.MessageMultiPipeItem.TravellingItemData;
+import ct.buildcraft.transport.pipe.Pipe;
+import ct.buildcraft.transport.pipe.flow.PipeFlowItems;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.network.NetworkEvent;
+
+/** A more compact version of {@link MessageMultiPipeItem}, that holds every item that entered a pipe in a single chunk
+ * during a single tick.
+ * <p>
+ * Positions are written relative to the chunk origin (4 bits each for x and z, 12 bits for y) and every item is packed
+ * into 16 bits of flags (toCenter, side, colour and timeToDest) on top of the stack id and count. */
+public class MessageChunkPipeItems {
+
+    private static final int MAX_ITEMS_PER_PIPE = 15;
+    private static final int MAX_POSITIONS = 4096;
+
+    private static final int BITS_REL_XZ = 4;
+    private static final int BITS_Y = 12;
+    private static final int BITS_ITEM_COUNT = 4;
+    private static final int BITS_SIDE = 3;
+    /** 0 for no colour, otherwise {@link DyeColor#ordinal()} + 1. */
+    private static final int BITS_COLOUR = 5;
+    private static final int BITS_TIME = 7;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final DyeColor[] COLOURS = DyeColor.values();
+
+    public final int chunkX, chunkZ;
+    /** Map of {@link #packPos(int, int, int)} to the items that entered that pipe. */
+    public final Int2ObjectMap<List<TravellingItemData>> items = new Int2ObjectLinkedOpenHashMap<>();
+
+    public MessageChunkPipeItems(int chunkX, int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+
+    public MessageChunkPipeItems(FriendlyByteBuf buffer) {
+        PacketBufferBC buf = PacketBufferBC.asFriendlyByteBufBc(buffer);
+        chunkX = buf.readInt();
+        chunkZ = buf.readInt();
+        int blockCount = buf.readVarInt();
+        for (int b = 0; b < blockCount; b++) {
+            int x = buf.readFixedBits(BITS_REL_XZ);
+            int z = buf.readFixedBits(BITS_REL_XZ);
+            // Sign-extend the 12 bit y value
+            int y = (buf.readFixedBits(BITS_Y) << (32 - BITS_Y)) >> (32 - BITS_Y);
+            int itemCount = buf.readFixedBits(BITS_ITEM_COUNT);
+            List<TravellingItemData> posItems = new ArrayList<>(itemCount);
+            items.put(packPos(x, y, z), posItems);
+            for (int i = 0; i < itemCount; i++) {
+                int stackId = buf.readVarInt();
+                byte stackCount = buf.readByte();
+                boolean toCenter = buf.readBoolean();
+                Direction side = DIRECTIONS[buf.readFixedBits(BITS_SIDE)];
+                int colourIndex = buf.readFixedBits(BITS_COLOUR);
+                DyeColor colour = colourIndex == 0 ? null : COLOURS[colourIndex - 1];
+                byte timeToDest = (byte) buf.readFixedBits(BITS_TIME);
+                posItems.add(new TravellingItemData(stackId, stackCount, toCenter, side, colour, timeToDest));
+            }
+        }
+    }
+
+    public static void toBytes(MessageChunkPipeItems msg, FriendlyByteBuf buffer) {
+        PacketBufferBC buf = PacketBufferBC.asFriendlyByteBufBc(buffer);
+        buf.writeInt(msg.chunkX);
+        buf.writeInt(msg.chunkZ);
+        buf.writeVarInt(msg.items.size());
+        for (Int2ObjectMap.Entry<List<TravellingItemData>> entry : msg.items.int2ObjectEntrySet()) {
+            int packed = entry.getIntKey();
+            buf.writeFixedBits(unpackX(packed), BITS_REL_XZ);
+            buf.writeFixedBits(unpackZ(packed), BITS_REL_XZ);
+            buf.writeFixedBits(unpackY(packed) & ((1 << BITS_Y) - 1), BITS_Y);
+            List<TravellingItemData> list = entry.getValue();
+            buf.writeFixedBits(list.size(), BITS_ITEM_COUNT);
+            for (TravellingItemData item : list) {
+                buf.writeVarInt(item.stackId);
+                buf.writeByte(item.stackCount);
+                buf.writeBoolean(item.toCenter);
+                buf.writeFixedBits(item.side.ordinal(), BITS_SIDE);
+                buf.writeFixedBits(item.colour == null ? 0 : item.colour.ordinal() + 1, BITS_COLOUR);
+                buf.writeFixedBits(item.timeToDest & ((1 << BITS_TIME) - 1), BITS_TIME);
+            }
+        }
+    }
+
+    /** @return True if the item was added, or false if this message is already full. */
+    public boolean append(BlockPos pos, int stackId, byte stackCount, boolean toCenter, Direction side,
+        DyeColor colour, byte timeToDest) {
+        int packed = packPos(pos.getX() & 15, pos.getY(), pos.getZ() & 15);
+        List<TravellingItemData> list = items.get(packed);
+        if (list == null) {
+            if (items.size() >= MAX_POSITIONS) {
+                return false;
+            }
+            list = new ArrayList<>(2);
+            items.put(packed, list);
+        }
+        if (list.size() >= MAX_ITEMS_PER_PIPE) {
+            return false;
+        }
+        list.add(new TravellingItemData(stackId, stackCount, toCenter, side, colour, timeToDest));
+        return true;
+    }
+
+    public BlockPos getPos(int packed) {
+        return new BlockPos((chunkX << 4) + unpackX(packed), unpackY(packed), (chunkZ << 4) + unpackZ(packed));
+    }
+
+    private static int packPos(int relX, int y, int relZ) {
+        return (y << 8) | (relX << 4) | relZ;
+    }
+
+    private static int unpackX(int packed) {
+        return (packed >> 4) & 15;
+    }
+
+    private static int unpackY(int packed) {
+        return packed >> 8;
+    }
+
+    private static int unpackZ(int packed) {
+        return packed & 15;
+    }
+
+    public static final BiConsumer<MessageChunkPipeItems, Supplier<NetworkEvent.Context>> HANDLER = (message, ctx) -> {
+        ctx.get().enqueueWork(() -> {
+            Level world = Minecraft.getInstance().level;
+            if (world == null) {
+                return;
+            }
+            for (Int2ObjectMap.Entry<List<TravellingItemData>> entry : message.items.int2ObjectEntrySet()) {
+                BlockEntity tile = world.getBlockEntity(message.getPos(entry.getIntKey()));
+                if (tile instanceof IPipeHolder) {
+                    IPipe pipe = ((IPipeHolder) tile).getPipe();
+                    if (pipe == Pipe.EMPTY) {
+                        continue;
+                    }
+                    PipeFlow flow = pipe.getFlow();
+                    if (flow instanceof PipeFlowItems) {
+                        ((PipeFlowItems) flow).handleClientReceviedItems(entry.getValue());
+                    }
+                }
+            }
+        });
+        ctx.get().setPacketHandled(true);
+    };
+}
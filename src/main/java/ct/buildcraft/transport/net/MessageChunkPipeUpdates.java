@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.transport.net;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import ct.buildcraft.api.core.BCLog;
+import ct.buildcraft.lib.net.IPayloadReceiver;
+import ct.buildcraft.lib.net.IPayloadWriter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraftforge.network.NetworkEvent;
+
+/** Holds the network updates of every pipe in a single chunk that changed during a single tick, so that they can be
+ * sent as one packet rather than one {@link ct.buildcraft.lib.net.MessageUpdateTile} per pipe.
+ * <p>
+ * Each update is written as the position relative to the chunk, the length of the payload, and then the payload itself
+ * (in exactly the same format as a {@link ct.buildcraft.lib.net.MessageUpdateTile}). The length means that a single
+ * pipe that fails to read its payload won't break the rest of the message. */
+public class MessageChunkPipeUpdates {
+
+    public final int chunkX, chunkZ;
+    private int count;
+    private final ByteBuf data;
+
+    public MessageChunkPipeUpdates(int chunkX, int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.data = Unpooled.buffer();
+    }
+
+    public MessageChunkPipeUpdates(FriendlyByteBuf buf) {
+        chunkX = buf.readInt();
+        chunkZ = buf.readInt();
+        count = buf.readVarInt();
+        data = buf.readBytes(buf.readableBytes());
+    }
+
+    public static void toBytes(MessageChunkPipeUpdates msg, FriendlyByteBuf buf) {
+        buf.writeInt(msg.chunkX);
+        buf.writeInt(msg.chunkZ);
+        buf.writeVarInt(msg.count);
+        // Don't move the reader index, in case this is written more than once
+        buf.writeBytes(msg.data, msg.data.readerIndex(), msg.data.readableBytes());
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /** @return The number of bytes of updates that have been appended so far. */
+    public int getPayloadSize() {
+        return data.readableBytes();
+    }
+
+    /** Appends an update for a single tile in this chunk.
+     *
+     * @param writer Writes the payload, starting with the message id (the same as
+     *            {@link ct.buildcraft.lib.tile.TileBC_Neptune#createMessage(int, IPayloadWriter)}). */
+    public void append(BlockPos pos, IPayloadWriter writer) {
+        data.writeByte(((pos.getX() & 15) << 4) | (pos.getZ() & 15));
+        data.writeShort(pos.getY());
+        int lengthIndex = data.writerIndex();
+        data.writeInt(0);
+        writer.write(new FriendlyByteBuf(data));
+        data.setInt(lengthIndex, data.writerIndex() - lengthIndex - Integer.BYTES);
+        count++;
+    }
+
+    public static final BiConsumer<MessageChunkPipeUpdates, Supplier<NetworkEvent.Context>> HANDLER = (message, ctx) -> {
+        ctx.get().enqueueWork(() -> {
+            try {
+                Level world = Minecraft.getInstance().level;
+                if (world == null) {
+                    return;
+                }
+                ByteBuf data = message.data;
+                for (int i = 0; i < message.count; i++) {
+                    int xz = data.readUnsignedByte();
+                    int y = data.readShort();
+                    int length = data.readInt();
+                    ByteBuf payload = data.readSlice(length);
+                    BlockPos pos = new BlockPos((message.chunkX << 4) + (xz >> 4), y, (message.chunkZ << 4) + (xz & 15));
+                    BlockEntity tile = world.getBlockEntity(pos);
+                    if (tile instanceof IPayloadReceiver) {
+                        try {
+                            ((IPayloadReceiver) tile).receivePayload(ctx.get(), new FriendlyByteBuf(payload));
+                        } catch (IOException | RuntimeException e) {
+                            BCLog.logger.warn("[transport.net] Failed to read a pipe update at " + pos, e);
+                        }
+                    } else {
+                        BCLog.logger.warn("Dropped pipe update for tile at " + pos + " (found " + tile + ")");
+                    }
+                }
+            } finally {
+                message.data.release();
+            }
+        });
+        ctx.get().setPacketHandled(true);
+    };
+}
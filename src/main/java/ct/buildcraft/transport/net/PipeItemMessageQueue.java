@@ -1,61 +1,77 @@
 package ct.buildcraft.transport.net;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.WeakHashMap;
 
 import javax.annotation.Nullable;
 
 import ct.buildcraft.lib.net.MessageManager;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.chunk.LevelChunk;
 
 public class PipeItemMessageQueue {
 
-    private static final Map<LevelChunk, List<MessageMultiPipeItem>> cachedPlayerPackets = new WeakHashMap<>();
+    /** Marker for chunks that nobody was watching when their first item was appended this tick. */
+    private static final MessageChunkPipeItems NOT_WATCHED = new MessageChunkPipeItems(0, 0);
+
+    /** One pending message per (level, chunk). Everything is sent and cleared in {@link #serverTick()}. */
+    private static final Map<ServerLevel, Long2ObjectMap<MessageChunkPipeItems>> cachedChunkPackets =
+        new WeakHashMap<>();
 
-    
     public static void serverTick() {
-        for (Entry<LevelChunk, List<MessageMultiPipeItem>> entry : cachedPlayerPackets.entrySet()) {
-        	LevelChunk chunk = entry.getKey();
-        	for(MessageMultiPipeItem msg : entry.getValue()) {
-        		MessageManager.sendToAllWatching(msg, chunk);
-        	}
+        for (Map.Entry<ServerLevel, Long2ObjectMap<MessageChunkPipeItems>> entry : cachedChunkPackets.entrySet()) {
+            ServerLevel world = entry.getKey();
+            Long2ObjectMap<MessageChunkPipeItems> chunks = entry.getValue();
+            for (MessageChunkPipeItems msg : chunks.values()) {
+                if (msg == NOT_WATCHED || msg.items.isEmpty()) {
+                    continue;
+                }
+                send(world, msg);
+            }
+            chunks.clear();
         }
-        cachedPlayerPackets.clear();
+    }
+
+    private static void send(ServerLevel world, MessageChunkPipeItems msg) {
+        MessageManager.sendToAllWatching(msg, world.getChunk(msg.chunkX, msg.chunkZ));
     }
 
     public static void appendTravellingItem(Level world, BlockPos pos, int stackId, byte stackCount, boolean toCenter,
         Direction side, @Nullable DyeColor colour, byte timeToDest) {
         ServerLevel server = (ServerLevel) world;
-//        PlayerChunkMapEntry playerChunkMap = server.getPlayerChunkMap().getEntry(pos.getX() >> 4, pos.getZ() >> 4);
-        //to debug
-//        if (/*playerChunkMap == null*/((ServerLevel)world).getChunkSource().chunkMap.getDistanceManager().inBlockTickingRange(pos.asLong())) {
-            // No-one was watching this chunk.
-//            return;
-//        }
-        // Slightly ugly hack to iterate through all players watching the chunk
-/*        playerChunkMap.hasPlayerMatchingInRange(0, player -> {
-            players.add(player);
-            // Always return false so that the iteration doesn't stop early
-            return false;
-        });*/
-        
-        cachedPlayerPackets.computeIfAbsent(server.getChunkAt(pos), 
-        	pl -> {
-        		List<MessageMultiPipeItem> l = new ArrayList<>();
-        		MessageMultiPipeItem msg = new MessageMultiPipeItem();
-        		msg.append(pos, stackId, stackCount, toCenter, side, colour, timeToDest);
-        		l.add(msg);
-        		return l;
-        	});
+        Long2ObjectMap<MessageChunkPipeItems> chunks =
+            cachedChunkPackets.computeIfAbsent(server, w -> new Long2ObjectOpenHashMap<>());
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        MessageChunkPipeItems msg = chunks.get(key);
+        if (msg == null) {
+            // Only check the watchers once per chunk per tick
+            ChunkPos chunkPos = new ChunkPos(chunkX, chunkZ);
+            if (server.getChunkSource().chunkMap.getPlayers(chunkPos, false).isEmpty()) {
+                msg = NOT_WATCHED;
+            } else {
+                msg = new MessageChunkPipeItems(chunkX, chunkZ);
+            }
+            chunks.put(key, msg);
+        }
+        if (msg == NOT_WATCHED) {
+            return;
+        }
+        if (!msg.append(pos, stackId, stackCount, toCenter, side, colour, timeToDest)) {
+            // Too many items for this pipe (or positions for this chunk) in one message, so send what we have so far
+            // and start again. A new message always has room for at least one item.
+            send(server, msg);
+            msg = new MessageChunkPipeItems(chunkX, chunkZ);
+            chunks.put(key, msg);
+            msg.append(pos, stackId, stackCount, toCenter, side, colour, timeToDest);
+        }
     }
 }
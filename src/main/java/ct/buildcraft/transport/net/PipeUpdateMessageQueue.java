@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.transport.net;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import ct.buildcraft.lib.net.IPayloadWriter;
+import ct.buildcraft.lib.net.MessageManager;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+/** Merges the network updates of every pipe in a chunk into a single {@link MessageChunkPipeUpdates} per tick. */
+public class PipeUpdateMessageQueue {
+
+    /** Messages are sent early if they get larger than this, to stay well under the maximum packet size. */
+    private static final int MAX_PAYLOAD_SIZE = 1 << 19;
+
+    /** Marker for chunks that nobody was watching when their first update was appended this tick. */
+    private static final MessageChunkPipeUpdates NOT_WATCHED = new MessageChunkPipeUpdates(0, 0);
+
+    /** One pending message per (level, chunk). Everything is sent and cleared in {@link #serverTick()}. */
+    private static final Map<ServerLevel, Long2ObjectMap<MessageChunkPipeUpdates>> cachedChunkPackets =
+        new WeakHashMap<>();
+
+    public static void serverTick() {
+        for (Map.Entry<ServerLevel, Long2ObjectMap<MessageChunkPipeUpdates>> entry : cachedChunkPackets.entrySet()) {
+            ServerLevel world = entry.getKey();
+            Long2ObjectMap<MessageChunkPipeUpdates> chunks = entry.getValue();
+            for (MessageChunkPipeUpdates msg : chunks.values()) {
+                if (msg == NOT_WATCHED || msg.isEmpty()) {
+                    continue;
+                }
+                send(world, msg);
+            }
+            chunks.clear();
+        }
+    }
+
+    private static void send(ServerLevel world, MessageChunkPipeUpdates msg) {
+        MessageManager.sendToAllWatching(msg, world.getChunk(msg.chunkX, msg.chunkZ));
+    }
+
+    /** Queues an update for the tile at the given position, to be sent to everyone watching its chunk at the end of
+     * this tick.
+     *
+     * @param writer Writes the payload, starting with the message id. */
+    public static void appendUpdate(Level world, BlockPos pos, IPayloadWriter writer) {
+        ServerLevel server = (ServerLevel) world;
+        Long2ObjectMap<MessageChunkPipeUpdates> chunks =
+            cachedChunkPackets.computeIfAbsent(server, w -> new Long2ObjectOpenHashMap<>());
+        int chunkX = pos.getX() >> 4;
+        int chunkZ = pos.getZ() >> 4;
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        MessageChunkPipeUpdates msg = chunks.get(key);
+        if (msg == null) {
+            // Only check the watchers once per chunk per tick
+            ChunkPos chunkPos = new ChunkPos(chunkX, chunkZ);
+            if (server.getChunkSource().chunkMap.getPlayers(chunkPos, false).isEmpty()) {
+                msg = NOT_WATCHED;
+            } else {
+                msg = new MessageChunkPipeUpdates(chunkX, chunkZ);
+            }
+            chunks.put(key, msg);
+        }
+        if (msg == NOT_WATCHED) {
+            return;
+        }
+        msg.append(pos, writer);
+        if (msg.getPayloadSize() > MAX_PAYLOAD_SIZE) {
+            send(server, msg);
+            chunks.put(key, new MessageChunkPipeUpdates(chunkX, chunkZ));
+        }
+    }
+}
@@ -33,6 +33,7 @@ import ct.buildcraft.lib.misc.MessageUtil;
 import ct.buildcraft.lib.misc.NBTUtilBC;
 import ct.buildcraft.lib.net.PacketBufferBC;
 import ct.buildcraft.transport.client.model.key.PipeModelKey;
+import ct.buildcraft.transport.pipe.flow.PipeFlowItems;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -272,6 +273,11 @@ public final class Pipe implements IPipe, IDebuggable {
         }
     }
 
+    /** @return True if neither the behaviour nor the flow have anything to do in {@link #onTick()}. */
+    public boolean isIdle() {
+        return !updateMarked && behaviour.isIdle() && flow.isIdle();
+    }
+
     private void updateConnections() {
         if (holder.getPipeWorld().isClientSide()) {
             return;
@@ -324,6 +330,8 @@ public final class Pipe implements IPipe, IDebuggable {
                 types.put(facing, ConnectedType.TILE);
             }
         }
+        // Connection types (and pluggables) can change without the connections themselves changing
+        PipeFlowItems.invalidateRoutes(this);
         if (!old.equals(connected)) {
             for (Direction face : Direction.values()) {
                 boolean o = old.containsKey(face);
@@ -371,6 +379,9 @@ public final class Pipe implements IPipe, IDebuggable {
     @Override
     public void markForUpdate() {
         updateMarked = true;
+        if (holder != null) {
+            holder.wakeUp();
+        }
     }
 
     @OnlyIn(Dist.CLIENT)
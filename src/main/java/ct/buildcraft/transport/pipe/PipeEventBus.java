@@ -6,8 +6,11 @@
 
 package ct.buildcraft.transport.pipe;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
@@ -15,21 +18,30 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import ct.buildcraft.api.core.BCDebugging;
+import ct.buildcraft.api.core.BCLog;
 import ct.buildcraft.api.transport.pipe.PipeEvent;
 import ct.buildcraft.api.transport.pipe.PipeEventHandler;
 import ct.buildcraft.api.transport.pipe.PipeEventPriority;
 
 public class PipeEventBus {
     public static final boolean DEBUG = BCDebugging.shouldDebugLog("transport.pipe.event_bus");
-    // TODO: Investigate using a flag long to check if any handlers are registered for a PipeEvent class!
+
+    private static final LocalHandler[] NO_HANDLERS = new LocalHandler[0];
 
     private static final Map<Class<?>, List<Handler>> allHandlers = new HashMap<>();
 
     private final List<LocalHandler> currentHandlers = new ArrayList<>();
+    /** Map of event class to every handler in {@link #currentHandlers} that receives it, in priority order. Cleared
+     * whenever a handler is registered or unregistered. */
+    private final Map<Class<?>, LocalHandler[]> dispatchTables = new IdentityHashMap<>();
+    private int handlerChanges = 0;
 
     private static List<LocalHandler> getAndBindHandlers(Object obj) {
         Class<?> cls = obj instanceof Class ? (Class<?>) obj : obj.getClass();
@@ -46,7 +58,7 @@ public class PipeEventBus {
         return list;
     }
 
-    private static List<Handler> getHandlers(Class<?> cls) {
+    private static synchronized List<Handler> getHandlers(Class<?> cls) {
         if (!allHandlers.containsKey(cls)) {
             List<Handler> list = new ArrayList<>();
             Class<?> superCls = cls.getSuperclass();
@@ -76,7 +88,8 @@ public class PipeEventBus {
                 }
                 boolean isStatic = Modifier.isStatic(m.getModifiers());
                 String methodName = m.toString();
-                list.add(new Handler(annot.priority(), annot.receiveCancelled(), isStatic, methodName, mh, p.getType()));
+                IEventInvoker invoker = createInvoker(m, isStatic, mh);
+                list.add(new Handler(annot.priority(), annot.receiveCancelled(), isStatic, methodName, mh, invoker, p.getType()));
             }
 
             allHandlers.put(cls, list);
@@ -85,12 +98,56 @@ public class PipeEventBus {
         return allHandlers.get(cls);
     }
 
+    /** Generates a class (with {@link LambdaMetafactory}) that calls the handler method directly, so that firing an
+     * event doesn't need to go through {@link MethodHandle#invoke(Object...)}. Falls back to the method handle if the
+     * method can't be accessed privately (for example if it's in a different module). */
+    @SuppressWarnings("unchecked")
+    private static IEventInvoker createInvoker(Method method, boolean isStatic, MethodHandle fallback) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle impl = lookup.unreflect(method);
+            MethodType instantiated = impl.type().changeReturnType(void.class);
+            if (isStatic) {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(Consumer.class),
+                    MethodType.methodType(void.class, Object.class), impl, instantiated);
+                Consumer<Object> consumer = (Consumer<Object>) site.getTarget().invoke();
+                return (target, event) -> consumer.accept(event);
+            } else {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept", MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class), impl, instantiated);
+                BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) site.getTarget().invoke();
+                return consumer::accept;
+            }
+        } catch (Throwable t) {
+            if (DEBUG) {
+                BCLog.logger.info("[transport.pipe.event_bus] Using a method handle for " + method + " because " + t);
+            }
+            if (isStatic) {
+                return (target, event) -> {
+                    try {
+                        fallback.invoke(event);
+                    } catch (Throwable e) {
+                        throw new IllegalStateException(e);
+                    }
+                };
+            }
+            return (target, event) -> {
+                try {
+                    fallback.invoke(target, event);
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        }
+    }
+
     public void registerHandler(Object obj) {
         if (obj == null) {
             return;
         }
         currentHandlers.addAll(getAndBindHandlers(obj));
         Collections.sort(currentHandlers);
+        onHandlersChanged();
     }
 
     public void unregisterHandler(Object obj) {
@@ -98,13 +155,62 @@ public class PipeEventBus {
             return;
         }
 
-        currentHandlers.removeIf(next -> next.target == obj);
+        if (currentHandlers.removeIf(next -> next.target == obj)) {
+            onHandlersChanged();
+        }
+    }
+
+    private void onHandlersChanged() {
+        handlerChanges++;
+        dispatchTables.clear();
+    }
+
+    /** @return A number that changes whenever a handler is registered or unregistered. Useful for caching the result of
+     *         {@link #hasHandlersFor(Class)}. */
+    public int getHandlerChanges() {
+        return handlerChanges;
+    }
+
+    /** @return True if any of the registered handlers would be called for the given event class, or any of its
+     *         subclasses. */
+    public boolean hasHandlersFor(Class<? extends PipeEvent> eventClass) {
+        for (LocalHandler handler : currentHandlers) {
+            if (eventClass.isAssignableFrom(handler.classHandled) || handler.classHandled.isAssignableFrom(eventClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** @return True if firing an event of exactly the given class would call at least one handler. Callers can use this
+     *         to skip creating an event that nothing listens to. */
+    public boolean hasListeners(Class<? extends PipeEvent> eventClass) {
+        return getDispatchTable(eventClass).length > 0;
+    }
+
+    private LocalHandler[] getDispatchTable(Class<?> eventClass) {
+        LocalHandler[] table = dispatchTables.get(eventClass);
+        if (table == null) {
+            List<LocalHandler> list = new ArrayList<>();
+            for (LocalHandler handler : currentHandlers) {
+                if (handler.classHandled.isAssignableFrom(eventClass)) {
+                    list.add(handler);
+                }
+            }
+            table = list.isEmpty() ? NO_HANDLERS : list.toArray(NO_HANDLERS);
+            dispatchTables.put(eventClass, table);
+        }
+        return table;
     }
 
     /** Sends this event to all of the registered handlers.
      * 
      * @return True if at least 1 event handler was called, 0 if no handlers were called. */
     public boolean fireEvent(PipeEvent event) {
+        LocalHandler[] handlers = getDispatchTable(event.getClass());
+        if (handlers.length == 0) {
+            return false;
+        }
         boolean handled = false;
         if (DEBUG) {
             String error = event.checkStateForErrors();
@@ -113,8 +219,8 @@ public class PipeEventBus {
                     + "(error = " + error + ")");
             }
         }
-        for (LocalHandler handler : currentHandlers) {
-            handled |= handler.handleEvent(event);
+        for (LocalHandler handler : handlers) {
+            handled |= handler.invoke(event);
             if (DEBUG) {
                 String error = event.checkStateForErrors();
                 if (error != null) {
@@ -126,19 +232,27 @@ public class PipeEventBus {
         return handled;
     }
 
+    /** Calls a single handler method. For static methods the target is ignored. */
+    @FunctionalInterface
+    public interface IEventInvoker {
+        void invoke(Object target, PipeEvent event);
+    }
+
     public static class Handler {
         final PipeEventPriority priority;
         final boolean receiveCanceled, isStatic;
         final String methodName;
         final MethodHandle handle;
+        final IEventInvoker invoker;
         final Class<?> eventClassHandled;
 
-        public Handler(PipeEventPriority priority, boolean receiveCanceled, boolean isStatic, String methodName, MethodHandle handle, Class<?> eventClassHandled) {
+        public Handler(PipeEventPriority priority, boolean receiveCanceled, boolean isStatic, String methodName, MethodHandle handle, IEventInvoker invoker, Class<?> eventClassHandled) {
             this.priority = priority;
             this.receiveCanceled = receiveCanceled;
             this.isStatic = isStatic;
             this.methodName = methodName;
             this.handle = handle;
+            this.invoker = invoker;
             this.eventClassHandled = eventClassHandled;
         }
 
@@ -147,8 +261,7 @@ public class PipeEventBus {
             if (!isStatic && obj instanceof Class<?>) {
                 return null;
             }
-            MethodHandle bound = isStatic ? handle : handle.bindTo(obj);
-            return new LocalHandler(priority, receiveCanceled, obj, methodName, eventClassHandled, bound);
+            return new LocalHandler(priority, receiveCanceled, obj, methodName, eventClassHandled, invoker);
         }
     }
 
@@ -158,31 +271,37 @@ public class PipeEventBus {
         final Object target;
         final String methodName;
         final Class<?> classHandled;
-        final MethodHandle handle;
+        final IEventInvoker invoker;
 
-        public LocalHandler(PipeEventPriority priority, boolean receiveCanceled, Object target, String methodName, Class<?> classHandled, MethodHandle handle) {
+        public LocalHandler(PipeEventPriority priority, boolean receiveCanceled, Object target, String methodName, Class<?> classHandled, IEventInvoker invoker) {
             this.priority = priority;
             this.receiveCanceled = receiveCanceled;
             this.target = target;
             this.methodName = methodName;
             this.classHandled = classHandled;
-            this.handle = handle;
+            this.invoker = invoker;
         }
 
         public boolean handleEvent(PipeEvent event) {
-            if (!receiveCanceled && event.isCanceled()) {
+            if (!classHandled.isAssignableFrom(event.getClass())) {
                 return false;
             }
+            return invoke(event);
+        }
 
-            if (classHandled.isAssignableFrom(event.getClass())) {
-                try {
-                    handle.invoke(event);
-                    return true;
-                } catch (Throwable e) {
-                    throw new IllegalStateException(e);
-                }
+        /** Like {@link #handleEvent(PipeEvent)}, but assumes that the event class has already been checked. */
+        boolean invoke(PipeEvent event) {
+            if (!receiveCanceled && event.isCanceled()) {
+                return false;
+            }
+            try {
+                invoker.invoke(target, event);
+                return true;
+            } catch (IllegalStateException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
             }
-            return false;
         }
 
         @Override
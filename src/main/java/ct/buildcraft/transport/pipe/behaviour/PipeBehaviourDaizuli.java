@@ -19,6 +19,7 @@ import ct.buildcraft.api.transport.pipe.PipeEventStatement;
 import ct.buildcraft.lib.misc.EntityUtil;
 import ct.buildcraft.lib.misc.NBTUtilBC;
 import ct.buildcraft.transport.BCTransportStatements;
+import ct.buildcraft.transport.pipe.flow.PipeFlowItems;
 import ct.buildcraft.transport.statements.ActionPipeColor;
 
 import net.minecraft.core.Direction;
@@ -96,6 +97,7 @@ public class PipeBehaviourDaizuli extends PipeBehaviourDirectional {
             EntityUtil.activateWrench(player, trace);
             int n = colour.getId() + (player.isSteppingCarefully() ? 15 : 1);
             colour = DyeColor.byId(n & 15);
+            PipeFlowItems.invalidateRoutes(pipe);
             pipe.getHolder().scheduleNetworkUpdate(PipeMessageReceiver.BEHAVIOUR);
             return true;
         }
@@ -124,6 +126,7 @@ public class PipeBehaviourDaizuli extends PipeBehaviourDirectional {
             ActionPipeColor action = ((ActionPipeColor) event.action);
             if (this.colour != action.color) {
                 this.colour = action.color;
+                PipeFlowItems.invalidateRoutes(pipe);
                 pipe.getHolder().scheduleNetworkUpdate(PipeMessageReceiver.BEHAVIOUR);
             }
         }
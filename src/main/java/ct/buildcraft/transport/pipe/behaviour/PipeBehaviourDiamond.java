@@ -31,6 +31,7 @@ import ct.buildcraft.lib.misc.AdvancementUtil;
 import ct.buildcraft.lib.tile.item.ItemHandlerSimple;
 import ct.buildcraft.transport.client.gui.MenuPipeDiamond;
 import ct.buildcraft.transport.client.render.RenderPipeHolder;
+import ct.buildcraft.transport.pipe.flow.PipeFlowItems;
 
 public abstract class PipeBehaviourDiamond extends PipeBehaviour implements MenuProvider{
 
@@ -57,6 +58,7 @@ public abstract class PipeBehaviourDiamond extends PipeBehaviour implements Menu
     }
 
     protected void onFilterSlotChange(IItemHandlerModifiable itemHandler, int slot, ItemStack before, ItemStack after) {
+        PipeFlowItems.invalidateRoutes(pipe);
         if (pipe.getHolder().getPipeWorld().isClientSide()) {
             return;
         }
@@ -36,6 +36,7 @@ import ct.buildcraft.lib.misc.collect.OrderedEnumMap;
 import ct.buildcraft.lib.net.PacketBufferBC;
 
 import ct.buildcraft.transport.BCTransportStatements;
+import ct.buildcraft.transport.pipe.flow.PipeFlowItems;
 import ct.buildcraft.transport.statements.ActionPipeDirection;
 
 public abstract class PipeBehaviourDirectional extends PipeBehaviour {
@@ -129,6 +130,7 @@ public abstract class PipeBehaviourDirectional extends PipeBehaviour {
             return;
         }
         this.currentDir = EnumPipePart.fromFacing(setTo);
+        PipeFlowItems.invalidateRoutes(pipe);
 //        if (!pipe.getHolder().getPipeWorld().isClientSide()) {
         if(Thread.currentThread().getThreadGroup() == SidedThreadGroups.SERVER) {
             pipe.getHolder().scheduleNetworkUpdate(PipeMessageReceiver.BEHAVIOUR);
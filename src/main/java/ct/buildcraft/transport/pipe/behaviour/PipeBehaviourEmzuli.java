@@ -210,6 +210,11 @@ public class PipeBehaviourEmzuli extends PipeBehaviourWood implements MenuProvid
         }
     }
 
+    @Override
+    public boolean isIdle() {
+        return super.isIdle() && activeSlots.isEmpty() && currentSlot == null;
+    }
+
     private SlotIndex getNextSlot() {
         SlotIndex current = currentSlot == null ? SlotIndex.CROSS : currentSlot;
         int i = SlotIndex.VALUES.length;
@@ -254,6 +259,7 @@ public class PipeBehaviourEmzuli extends PipeBehaviourWood implements MenuProvid
             ActionExtractionPreset preset = (ActionExtractionPreset) event.action;
             activeSlots.add(preset.index);
             activatedTtl[preset.index.ordinal()] = 2;
+            pipe.getHolder().wakeUp();
         }
     }
     
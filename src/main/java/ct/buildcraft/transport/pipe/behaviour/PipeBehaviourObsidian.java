@@ -69,6 +69,11 @@ public class PipeBehaviourObsidian extends PipeBehaviour implements IMjRedstoneR
         return nbt;
     }
 
+    @Override
+    public boolean isIdle() {
+        return toWaitTicks <= 0;
+    }
+
     @Override
     public void onTick() {
         if (pipe.getHolder().getPipeWorld().isClientSide()) {
@@ -149,6 +149,11 @@ public class PipeBehaviourStripes extends PipeBehaviour implements IStripesActiv
         return !(other instanceof PipeBehaviourStripes);
     }
 
+    @Override
+    public boolean isIdle() {
+        return false;
+    }
+
     @Override
     public void onTick() {
         Level world = pipe.getHolder().getPipeWorld();
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.transport.pipe.flow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import ct.buildcraft.api.transport.pipe.IPipe;
+import ct.buildcraft.api.transport.pipe.IPipe.ConnectedType;
+import ct.buildcraft.lib.misc.CapUtil;
+import ct.buildcraft.transport.BCTransportConfig;
+
+import net.minecraft.core.Direction;
+import net.minecraftforge.fluids.FluidStack;
+import net.minecraftforge.fluids.capability.IFluidHandler;
+import net.minecraftforge.fluids.capability.IFluidHandler.FluidAction;
+
+/** A run of plain {@link PipeFlowFluids} pipes (pipes with exactly two connections, and nothing that listens to fluid
+ * events) that is simulated as a single tank with a port at each end, used when
+ * {@link BCTransportConfig#fluidSegmentMode} is enabled.
+ * <p>
+ * The segment is ticked once per tick by whichever member ticks first. Fluid that enters one port has to travel
+ * through every member (taking the same time as it would through the normal sections) before it can leave through the
+ * other port. The per-pipe sections are only filled in from the pooled amount when they are actually needed: for
+ * network updates, debugging, saving, or when the segment is dissolved back into normal pipes. */
+final class FluidPipeSegment {
+    /** Runs shorter than this are left to the normal per-pipe logic, as the saving isn't worth it. */
+    static final int MIN_LENGTH = 4;
+
+    /** Every member, in order from the first port to the second port. */
+    private final PipeFlowFluids[] members;
+    /** The face of every member that points towards the previous member (or the first port). */
+    private final Direction[] prevFaces;
+    /** The face of every member that points towards the next member (or the second port). */
+    private final Direction[] nextFaces;
+    /** The total capacity of every member before the given index. Has one more element than {@link #members}. */
+    private final int[] capacityBefore;
+    private final int flowRate;
+
+    /** Map of [time] -> [amount inserted]. Fluid can only leave once it has been in the segment for a full cycle. */
+    private final int[] incoming;
+    private int currentTime;
+    private int inTransit;
+
+    @Nullable
+    private FluidStack fluid;
+    private int amount;
+
+    /** The same as {@link PipeFlowFluids.Section#ticksInDirection}, for the first and second ports. */
+    private final int[] portDirection = new int[2];
+    private final int[] portFilledThisTick = new int[2];
+
+    private boolean valid = true;
+    private long lastTick = Long.MIN_VALUE;
+
+    private FluidPipeSegment(List<PipeFlowFluids> members, List<Direction> prevFaces, List<Direction> nextFaces) {
+        int count = members.size();
+        this.members = members.toArray(new PipeFlowFluids[0]);
+        this.prevFaces = prevFaces.toArray(new Direction[0]);
+        this.nextFaces = nextFaces.toArray(new Direction[0]);
+        capacityBefore = new int[count + 1];
+        int rate = Integer.MAX_VALUE;
+        int delay = 0;
+        for (int i = 0; i < count; i++) {
+            PipeFlowFluids flow = this.members[i];
+            capacityBefore[i + 1] = capacityBefore[i] + flow.getSegmentCapacity();
+            rate = Math.min(rate, flow.getTransferPerTick());
+            delay += flow.getTransferDelay() * 3;
+        }
+        flowRate = rate;
+        incoming = new int[Math.max(1, delay)];
+    }
+
+    /** Finds the run of plain pipes that the given pipe is part of, and turns it into a new segment if it is long
+     * enough. Any segments that the run's pipes were previously part of are dissolved first.
+     *
+     * @return The new segment, or null if the run couldn't be made into a segment. */
+    @Nullable
+    static FluidPipeSegment build(PipeFlowFluids start) {
+        // Find one end of the run
+        PipeFlowFluids head = start;
+        Direction headPort = start.getOtherConnectedFace(null);
+        while (true) {
+            PipeFlowFluids next = getConnectedMember(head, headPort);
+            if (next == null) {
+                break;
+            }
+            if (next == start) {
+                // A loop has no ports, so there is nothing to move
+                start.markSegmentBuildFailed();
+                return null;
+            }
+            Direction in = headPort.getOpposite();
+            headPort = next.getOtherConnectedFace(in);
+            head = next;
+        }
+
+        // Then walk back to the other end
+        List<PipeFlowFluids> members = new ArrayList<>();
+        List<Direction> prevFaces = new ArrayList<>();
+        List<Direction> nextFaces = new ArrayList<>();
+        PipeFlowFluids current = head;
+        Direction prev = headPort;
+        while (current != null) {
+            Direction next = current.getOtherConnectedFace(prev);
+            members.add(current);
+            prevFaces.add(prev);
+            nextFaces.add(next);
+            PipeFlowFluids after = getConnectedMember(current, next);
+            prev = next.getOpposite();
+            current = after;
+        }
+
+        if (members.size() < MIN_LENGTH) {
+            markFailed(members);
+            return null;
+        }
+
+        FluidStack fluid = null;
+        int amount = 0;
+        int capacity = 0;
+        for (PipeFlowFluids flow : members) {
+            FluidStack contained = flow.getFluidForSegment();
+            if (contained != null) {
+                if (fluid == null) {
+                    fluid = contained;
+                } else if (!fluid.isFluidEqual(contained)) {
+                    markFailed(members);
+                    return null;
+                }
+            }
+            capacity += flow.getSegmentCapacity();
+        }
+
+        for (PipeFlowFluids flow : members) {
+            if (flow.segment != null) {
+                flow.segment.dissolve();
+            }
+            amount += flow.getTotalAmount();
+        }
+        if (amount > capacity) {
+            markFailed(members);
+            return null;
+        }
+
+        FluidPipeSegment segment = new FluidPipeSegment(members, prevFaces, nextFaces);
+        segment.fluid = amount > 0 && fluid != null ? fluid.copy() : null;
+        segment.amount = segment.fluid == null ? 0 : amount;
+        segment.portDirection[0] = members.get(0).getTicksInDirection(prevFaces.get(0));
+        segment.portDirection[1] = members.get(members.size() - 1).getTicksInDirection(nextFaces.get(nextFaces.size() - 1));
+        for (int i = 0; i < segment.members.length; i++) {
+            segment.members[i].segment = segment;
+            segment.members[i].segmentIndex = i;
+        }
+        return segment;
+    }
+
+    private static void markFailed(List<PipeFlowFluids> members) {
+        for (PipeFlowFluids flow : members) {
+            flow.markSegmentBuildFailed();
+        }
+    }
+
+    /** @return The pipe connected to the given face, if it can be part of a segment. */
+    @Nullable
+    private static PipeFlowFluids getConnectedMember(PipeFlowFluids flow, Direction face) {
+        if (!flow.pipe.isConnected(face) || flow.pipe.getConnectedType(face) != ConnectedType.PIPE) {
+            return null;
+        }
+        IPipe other = flow.pipe.getConnectedPipe(face);
+        if (other == null || other.getFlow().getClass() != PipeFlowFluids.class
+            || !other.isConnected(face.getOpposite())) {
+            return null;
+        }
+        PipeFlowFluids oFlow = (PipeFlowFluids) other.getFlow();
+        return oFlow.canJoinSegment() ? oFlow : null;
+    }
+
+    boolean isValid() {
+        return valid;
+    }
+
+    int getLength() {
+        return members.length;
+    }
+
+    int getAmount() {
+        return amount;
+    }
+
+    int getCapacity() {
+        return capacityBefore[members.length];
+    }
+
+    /** Moves fluid out of both ports. Only does anything the first time it is called in a tick. */
+    void tick(long now) {
+        if (lastTick == now) {
+            return;
+        }
+        lastTick = now;
+
+        currentTime = (currentTime + 1) % incoming.length;
+        inTransit -= incoming[currentTime];
+        incoming[currentTime] = 0;
+        portFilledThisTick[0] = 0;
+        portFilledThisTick[1] = 0;
+
+        if (fluid != null) {
+            moveFromPort(0);
+            moveFromPort(1);
+            if (amount <= 0) {
+                amount = 0;
+                fluid = null;
+            }
+        }
+
+        for (int i = 0; i < 2; i++) {
+            if (portDirection[i] > 0) {
+                portDirection[i]--;
+            } else if (portDirection[i] < 0) {
+                portDirection[i]++;
+            }
+        }
+    }
+
+    private void moveFromPort(int port) {
+        if (portDirection[port] < 0) {
+            return;
+        }
+        int available = Math.min(amount - inTransit, flowRate);
+        if (available <= 0) {
+            return;
+        }
+        PipeFlowFluids flow = getPortMember(port);
+        Direction face = getPortFace(port);
+        IFluidHandler handler = flow.pipe.getHolder().getCapabilityFromPipe(face, CapUtil.CAP_FLUIDS).orElse(null);
+        if (handler == null) {
+            return;
+        }
+        int filled = handler.fill(new FluidStack(fluid, available), FluidAction.EXECUTE);
+        if (filled > 0) {
+            amount -= filled;
+            portDirection[port] = PipeFlowFluids.COOLDOWN_OUTPUT;
+        }
+    }
+
+    /** Called by {@link PipeFlowFluids.Section#fill(FluidStack, FluidAction)} for every member.
+     *
+     * @return The amount of fluid filled, which is always 0 unless the face is one of the two ports. */
+    int fill(PipeFlowFluids flow, Direction face, FluidStack resource, FluidAction action) {
+        int port = getPort(flow, face);
+        if (port < 0 || portDirection[port] > 0) {
+            return 0;
+        }
+        if (fluid != null && !fluid.isFluidEqual(resource)) {
+            return 0;
+        }
+        int space = Math.min(getCapacity() - amount, flowRate - portFilledThisTick[port]);
+        int toFill = Math.min(space, resource.getAmount());
+        if (toFill <= 0) {
+            return 0;
+        }
+        if (action.execute()) {
+            if (fluid == null) {
+                fluid = resource.copy();
+            }
+            amount += toFill;
+            inTransit += toFill;
+            incoming[currentTime] += toFill;
+            portFilledThisTick[port] += toFill;
+            portDirection[port] = PipeFlowFluids.COOLDOWN_INPUT;
+        }
+        return toFill;
+    }
+
+    private int getPort(PipeFlowFluids flow, Direction face) {
+        if (face == null) {
+            return -1;
+        }
+        if (flow == members[0] && face == prevFaces[0]) {
+            return 0;
+        }
+        int last = members.length - 1;
+        if (flow == members[last] && face == nextFaces[last]) {
+            return 1;
+        }
+        return -1;
+    }
+
+    private PipeFlowFluids getPortMember(int port) {
+        return port == 0 ? members[0] : members[members.length - 1];
+    }
+
+    private Direction getPortFace(int port) {
+        return port == 0 ? prevFaces[0] : nextFaces[members.length - 1];
+    }
+
+    /** @return 1 if fluid is moving from the first port to the second, -1 if it is moving the other way, or 0 if it
+     *         isn't moving. */
+    private int getFlowDirection() {
+        if (portDirection[0] < 0 || portDirection[1] > 0) {
+            return 1;
+        }
+        if (portDirection[1] < 0 || portDirection[0] > 0) {
+            return -1;
+        }
+        return 0;
+    }
+
+    /** Fills in the sections of the given member from its share of the pooled fluid. */
+    void materialise(PipeFlowFluids flow) {
+        int index = flow.segmentIndex;
+        if (index < 0 || index >= members.length || members[index] != flow) {
+            return;
+        }
+        int total = getCapacity();
+        int share = 0;
+        if (fluid != null && total > 0) {
+            long before = (long) amount * capacityBefore[index] / total;
+            long after = (long) amount * capacityBefore[index + 1] / total;
+            share = (int) (after - before);
+        }
+
+        int direction = getFlowDirection();
+        int prevDirection = direction > 0 ? PipeFlowFluids.COOLDOWN_INPUT
+            : direction < 0 ? PipeFlowFluids.COOLDOWN_OUTPUT : 0;
+        int nextDirection = -prevDirection;
+        if (index == 0) {
+            prevDirection = portDirection[0];
+        }
+        if (index == members.length - 1) {
+            nextDirection = portDirection[1];
+        }
+        flow.applySegmentState(fluid, share, prevFaces[index], prevDirection, nextFaces[index], nextDirection);
+    }
+
+    /** Splits the pooled fluid back into every member, and turns them back into normal pipes. */
+    void dissolve() {
+        if (!valid) {
+            return;
+        }
+        valid = false;
+        for (PipeFlowFluids flow : members) {
+            if (flow.segment == this) {
+                materialise(flow);
+                flow.segment = null;
+                flow.segmentIndex = -1;
+            }
+        }
+    }
+
+    String getDebugString() {
+        return members.length + " pipes, " + amount + " / " + getCapacity() + "mB (" + inTransit + " in transit)";
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.transport.pipe.flow;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import ct.buildcraft.api.transport.pipe.PipeEventItem;
+
+/** Stores the result of {@link PipeEventItem.SideCheck} for a single pipe, keyed by the item (ignoring the count), the
+ * colour, the side the item came from and the sides it has already tried. The last result is kept separately so that
+ * a pipe which only ever sees one kind of item doesn't need to do a map lookup at all.
+ * <p>
+ * This relies on every side check handler only looking at the pipe's connections and its behaviour or pluggable state,
+ * so {@link #clear()} must be called whenever any of those change. */
+final class ItemRouteCache {
+    /** The maximum number of different routes stored before the whole cache is thrown away. This only needs to be
+     * large enough for the number of distinct items that go through a single sorting pipe. */
+    private static final int MAX_SIZE = 64;
+
+    private final Map<Route, Route> routes = new HashMap<>();
+
+    /** The last route that was looked up or stored. */
+    @Nullable
+    private Route last;
+
+    @Nullable
+    public List<EnumSet<Direction>> get(ItemStack stack, DyeColor colour, Direction from, EnumSet<Direction> tried) {
+        int triedMask = mask(tried);
+        Route route = last;
+        if (route != null && route.matches(stack, colour, from, triedMask)) {
+            return route.order;
+        }
+        if (routes.isEmpty()) {
+            return null;
+        }
+        route = routes.get(new Route(stack, colour, from, triedMask, null));
+        if (route == null) {
+            return null;
+        }
+        last = route;
+        return route.order;
+    }
+
+    /** Stores a copy of the given order (as the order returned by {@link PipeEventItem.SideCheck#getOrder()} is backed
+     * by the pooled event).
+     *
+     * @return The copy that was stored. */
+    public List<EnumSet<Direction>> put(ItemStack stack, DyeColor colour, Direction from, EnumSet<Direction> tried,
+        List<EnumSet<Direction>> order) {
+        ImmutableList.Builder<EnumSet<Direction>> builder = ImmutableList.builder();
+        for (EnumSet<Direction> set : order) {
+            builder.add(EnumSet.copyOf(set));
+        }
+        List<EnumSet<Direction>> copy = builder.build();
+        if (routes.size() >= MAX_SIZE) {
+            routes.clear();
+        }
+        Route route = new Route(stack.copy(), colour, from, mask(tried), copy);
+        routes.put(route, route);
+        last = route;
+        return copy;
+    }
+
+    public void clear() {
+        routes.clear();
+        last = null;
+    }
+
+    private static int mask(EnumSet<Direction> sides) {
+        int mask = 0;
+        for (Direction side : sides) {
+            mask |= 1 << side.ordinal();
+        }
+        return mask;
+    }
+
+    private static final class Route {
+        private final Item item;
+        @Nullable
+        private final CompoundTag tag;
+        @Nullable
+        private final DyeColor colour;
+        @Nullable
+        private final Direction from;
+        private final int triedMask;
+        private final int hash;
+        /** The stored order, or null if this is only used to look up a stored route. */
+        final List<EnumSet<Direction>> order;
+
+        Route(ItemStack stack, DyeColor colour, Direction from, int triedMask, List<EnumSet<Direction>> order) {
+            this.order = order;
+            this.item = stack.getItem();
+            this.tag = stack.getTag();
+            this.colour = colour;
+            this.from = from;
+            this.triedMask = triedMask;
+            this.hash = Objects.hash(item, tag, colour, from, triedMask);
+        }
+
+        boolean matches(ItemStack stack, DyeColor colour, Direction from, int triedMask) {
+            return this.item == stack.getItem() && this.colour == colour && this.from == from
+                && this.triedMask == triedMask && Objects.equals(this.tag, stack.getTag());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) return true;
+            if (!(obj instanceof Route)) return false;
+            Route other = (Route) obj;
+            return hash == other.hash && item == other.item && colour == other.colour && from == other.from
+                && triedMask == other.triedMask && Objects.equals(tag, other.tag);
+        }
+    }
+}
@@ -29,13 +29,16 @@ import ct.buildcraft.api.core.SafeTimeTracker;
 import ct.buildcraft.api.tiles.IDebuggable;
 import ct.buildcraft.api.transport.pipe.IFlowFluid;
 import ct.buildcraft.api.transport.pipe.IPipe;
+import ct.buildcraft.api.transport.pipe.IPipeHolder;
 import ct.buildcraft.api.transport.pipe.PipeApi;
 import ct.buildcraft.api.transport.pipe.PipeApi.FluidTransferInfo;
+import ct.buildcraft.api.transport.pipe.PipeEventConnectionChange;
 import ct.buildcraft.api.transport.pipe.PipeEventFluid;
 import ct.buildcraft.api.transport.pipe.PipeEventFluid.OnMoveToCentre;
 import ct.buildcraft.api.transport.pipe.PipeEventFluid.PreMoveToCentre;
 import ct.buildcraft.api.transport.pipe.PipeEventHandler;
 import ct.buildcraft.api.transport.pipe.PipeEventStatement;
+import ct.buildcraft.api.transport.pipe.PipeEventTileState;
 import ct.buildcraft.api.transport.pipe.PipeFlow;
 import ct.buildcraft.core.BCCoreItems;
 import ct.buildcraft.lib.misc.CapUtil;
@@ -46,7 +49,10 @@ import ct.buildcraft.lib.misc.VecUtil;
 import ct.buildcraft.lib.net.PacketBufferBC;
 import ct.buildcraft.lib.net.cache.BuildCraftObjectCaches;
 import ct.buildcraft.lib.net.cache.NetworkedObjectCache;
+import ct.buildcraft.transport.BCTransportConfig;
 import ct.buildcraft.transport.BCTransportStatements;
+import ct.buildcraft.transport.pipe.PipeEventBus;
+import ct.buildcraft.transport.tile.TilePipeHolder;
 
 import net.minecraft.core.Direction;
 import net.minecraft.core.NonNullList;
@@ -70,8 +76,8 @@ import net.minecraftforge.fml.LogicalSide;
 public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable {
 
     private static final int DIRECTION_COOLDOWN = 60;
-    private static final int COOLDOWN_INPUT = -DIRECTION_COOLDOWN;
-    private static final int COOLDOWN_OUTPUT = DIRECTION_COOLDOWN;
+    static final int COOLDOWN_INPUT = -DIRECTION_COOLDOWN;
+    static final int COOLDOWN_OUTPUT = DIRECTION_COOLDOWN;
 
     private static final InteractionResultHolder<FluidStack> FAILED_EXTRACT = new InteractionResultHolder<>(InteractionResult.FAIL, null);
     private static final InteractionResultHolder<FluidStack> PASSED_EXTRACT = new InteractionResultHolder<>(InteractionResult.PASS, null);
@@ -96,6 +102,17 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     private long lastMessage, lastMessageMinus1;
     private NetworkedObjectCache<FluidStack>.Link clientFluid = null;
 
+    // Server fields for BCTransportConfig.fluidSegmentMode
+
+    /** The segment that this pipe is currently part of. While this is non-null the sections are only a view of this
+     * pipe's share of the segment, and are only updated by {@link FluidPipeSegment#materialise(PipeFlowFluids)}. */
+    FluidPipeSegment segment;
+    int segmentIndex = -1;
+    /** True if this pipe has already tried (and failed) to create a segment since its connections last changed. */
+    private boolean segmentBuildFailed;
+    private boolean isPlain;
+    private int plainHandlerChanges = -1;
+
     public PipeFlowFluids(IPipe pipe) {
         super(pipe);
         for (EnumPipePart part : EnumPipePart.VALUES) {
@@ -137,6 +154,10 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     public CompoundTag writeToNbt() {
         CompoundTag nbt = super.writeToNbt();
 
+        if (segment != null) {
+            segment.materialise(this);
+        }
+
         if (currentFluid != null) {
             CompoundTag fluidTag = new CompoundTag();
             currentFluid.writeToNBT(fluidTag);
@@ -174,6 +195,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     @Override
     public void addDrops(NonNullList<ItemStack> toDrop, int fortune) {
         super.addDrops(toDrop, fortune);
+        leaveSegment();
         if (currentFluid != null && BCCoreItems.FRAGILE_FLUID_SHARD.isPresent()) {
             int totalAmount = 0;
             for (EnumPipePart part : EnumPipePart.VALUES) {
@@ -186,6 +208,9 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     }
 
     public boolean doesContainFluid() {
+        if (segment != null) {
+            return segment.getAmount() > 0;
+        }
         for (EnumPipePart part : EnumPipePart.VALUES) {
             if (sections.get(part).amount > 0) {
                 return true;
@@ -256,6 +281,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         if (from == null || millibuckets <= 0) {
             return FAILED_EXTRACT;
         }
+        leaveSegment();
         IFluidHandler fluidHandler = pipe.getHolder().getCapabilityFromPipe(from, CapUtil.CAP_FLUIDS).orElse(null);
         if (fluidHandler == null) {
             // FIXME: WRONG PLACE!!!
@@ -312,6 +338,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
 
     @Override
     public int insertFluidsForce(FluidStack fluid, @Nullable Direction from, FluidAction simulate) {
+        leaveSegment();
         Section s = sections.get(EnumPipePart.CENTER);
         if (fluid == null || fluid.getAmount() == 0) {
             return 0;
@@ -344,6 +371,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
         if (max < 0) {
             return null;
         }
+        leaveSegment();
         Section s = sections.get(EnumPipePart.fromFacing(section));
         if (s.amount < min) {
             return null;
@@ -372,6 +400,11 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
     public void getDebugInfo(List<String> left, List<String> right, Direction side) {
         boolean isClientSide = pipe.getHolder().getPipeWorld().isClientSide;
 
+        if (!isClientSide && segment != null) {
+            segment.materialise(this);
+            left.add(" - Segment = " + segment.getDebugString());
+        }
+
         FluidStack fluid = isClientSide ? getFluidStackForRender() : currentFluid;
         left.add(" - FluidType = " + (fluid == null ? "empty" : fluid.getDisplayName()));
 
@@ -470,6 +503,11 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             return;
         }
 
+        if (updateSegment()) {
+            onTickSegment(world);
+            return;
+        }
+
         if (currentFluid != null) {
             // int timeSlot = (int) (world.getTotalWorldTime() % currentDelay);
             int totalFluid = 0;
@@ -510,26 +548,192 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
             }
         }
 
-        boolean send = false;
+        if (hasUnsentChanges() && tracker.markTimeIfDelay(world)) {
+            // send a net update
+            sendPayload(NET_FLUID_AMOUNTS);
+        }
+    }
+
+    @Override
+    public boolean isIdle() {
+        if (segment != null || currentFluid != null || hasUnsentChanges()) {
+            return false;
+        }
+        // Otherwise the next tick might join (or create) a segment
+        return segmentBuildFailed || !BCTransportConfig.fluidSegmentMode;
+    }
 
+    private boolean hasUnsentChanges() {
         for (EnumPipePart part : EnumPipePart.VALUES) {
             Section section = sections.get(part);
             if (section.amount != section.lastSentAmount) {
-                send = true;
-                break;
+                return true;
+            }
+            if (section.lastSentDirection != Dir.get(section.ticksInDirection)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Segments
+
+    /** Joins, creates or leaves a {@link FluidPipeSegment} as required.
+     *
+     * @return True if this pipe is part of a segment, and so shouldn't move fluid on its own. */
+    private boolean updateSegment() {
+        if (!BCTransportConfig.fluidSegmentMode) {
+            leaveSegment();
+            return false;
+        }
+        if (segment != null && !isPlainPipe()) {
+            leaveSegment();
+        }
+        if (segment == null && !segmentBuildFailed) {
+            if (canJoinSegment()) {
+                FluidPipeSegment.build(this);
             } else {
-                Dir should = Dir.get(section.ticksInDirection);
-                if (section.lastSentDirection != should) {
-                    send = true;
-                    break;
-                }
+                segmentBuildFailed = true;
             }
         }
+        return segment != null;
+    }
 
-        if (send && tracker.markTimeIfDelay(world)) {
-            // send a net update
-            sendPayload(NET_FLUID_AMOUNTS);
+    /** Used instead of the normal per-pipe logic when this pipe is part of a segment. The segment itself only ticks
+     * once, and the sections are only filled in when a network update is due. */
+    private void onTickSegment(Level world) {
+        segment.tick(world.getGameTime());
+        if (tracker.markTimeIfDelay(world)) {
+            segment.materialise(this);
+            if (hasUnsentChanges()) {
+                sendPayload(NET_FLUID_AMOUNTS);
+            }
+        }
+    }
+
+    private void leaveSegment() {
+        if (segment != null) {
+            segment.dissolve();
+        }
+    }
+
+    @PipeEventHandler
+    public void onConnectionChange(PipeEventConnectionChange event) {
+        segmentBuildFailed = false;
+        leaveSegment();
+    }
+
+    @PipeEventHandler
+    public void onInvalidate(PipeEventTileState.Invalidate event) {
+        leaveSegment();
+    }
+
+    @PipeEventHandler
+    public void onChunkUnload(PipeEventTileState.ChunkUnload event) {
+        leaveSegment();
+    }
+
+    /** @return True if nothing (such as a behaviour or pluggable) listens to fluid events on this pipe, so it can be
+     *         simulated as part of a segment without changing how it behaves. */
+    private boolean isPlainPipe() {
+        IPipeHolder holder = pipe.getHolder();
+        if (!(holder instanceof TilePipeHolder)) {
+            return false;
+        }
+        PipeEventBus eventBus = ((TilePipeHolder) holder).eventBus;
+        int changes = eventBus.getHandlerChanges();
+        if (changes != plainHandlerChanges) {
+            plainHandlerChanges = changes;
+            isPlain = !eventBus.hasHandlersFor(PipeEventFluid.class);
+            segmentBuildFailed = false;
+        }
+        return isPlain;
+    }
+
+    boolean canJoinSegment() {
+        if (pipe.getHolder().getPipeWorld().isClientSide() || !isPlainPipe()) {
+            return false;
+        }
+        int connections = 0;
+        for (Direction face : Direction.values()) {
+            if (pipe.isConnected(face)) {
+                connections++;
+            }
+        }
+        return connections == 2;
+    }
+
+    void markSegmentBuildFailed() {
+        segmentBuildFailed = true;
+    }
+
+    /** @return The first connected face that isn't the given face. */
+    Direction getOtherConnectedFace(@Nullable Direction face) {
+        for (Direction other : Direction.values()) {
+            if (other != face && pipe.isConnected(other)) {
+                return other;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    FluidStack getFluidForSegment() {
+        return getTotalAmount() > 0 ? currentFluid : null;
+    }
+
+    int getTotalAmount() {
+        int total = 0;
+        for (Section section : sections.values()) {
+            total += section.amount;
         }
+        return total;
+    }
+
+    int getTicksInDirection(Direction face) {
+        return sections.get(EnumPipePart.fromFacing(face)).ticksInDirection;
+    }
+
+    /** @return The amount of fluid this pipe adds to a segment: the two connected sides and the centre. */
+    int getSegmentCapacity() {
+        return capacity * 3;
+    }
+
+    int getTransferPerTick() {
+        return fluidTransferInfo.transferPerTick;
+    }
+
+    int getTransferDelay() {
+        return Math.max(1, (int) fluidTransferInfo.transferDelayMultiplier);
+    }
+
+    /** Replaces the contents of every section with the given amount, spread over the two connected sides and the
+     * centre. */
+    void applySegmentState(@Nullable FluidStack fluid, int amount, Direction prevFace, int prevDirection,
+        Direction nextFace, int nextDirection) {
+        if (fluid == null || amount <= 0) {
+            if (currentFluid != null) {
+                setFluid(null);
+            }
+            amount = 0;
+        } else if (currentFluid == null || !currentFluid.isFluidEqual(fluid)) {
+            setFluid(fluid.copy());
+        }
+        for (Section section : sections.values()) {
+            section.amount = 0;
+            Arrays.fill(section.incoming, 0);
+            section.incomingTotalCache = 0;
+            section.ticksInDirection = 0;
+        }
+        Section prev = sections.get(EnumPipePart.fromFacing(prevFace));
+        Section next = sections.get(EnumPipePart.fromFacing(nextFace));
+        int third = amount / 3;
+        int remainder = amount - third * 3;
+        prev.amount = third + (remainder > 0 ? 1 : 0);
+        next.amount = third + (remainder > 1 ? 1 : 0);
+        sections.get(EnumPipePart.CENTER).amount = third;
+        prev.ticksInDirection = prevDirection;
+        next.ticksInDirection = nextDirection;
     }
 
     private void moveFromPipe() {
@@ -849,6 +1053,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                 incoming[currentTime] += amountToFill;
                 incomingTotalCache += amountToFill;
                 amount += amountToFill;
+                pipe.getHolder().wakeUp();
             }
             return amountToFill;
         }
@@ -862,6 +1067,7 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
                 incoming[currentTime] += amountToFill;
                 incomingTotalCache += amountToFill;
                 amount += amountToFill;
+                pipe.getHolder().wakeUp();
             }
             return amountToFill;
         }
@@ -965,6 +1171,9 @@ public class PipeFlowFluids extends PipeFlow implements IFlowFluid, IDebuggable
 
         @Override
         public int fill(FluidStack resource, FluidAction doFill) {
+            if (segment != null && resource != null) {
+                return segment.fill(PipeFlowFluids.this, part.face, resource, doFill);
+            }
             if (!getCurrentDirection().canInput() || !pipe.isConnected(part.face) || resource == null) {
                 return 0;
             }
@@ -25,23 +25,30 @@ import ct.buildcraft.api.transport.pipe.IPipe;
 import ct.buildcraft.api.transport.pipe.IPipe.ConnectedType;
 import ct.buildcraft.api.transport.pipe.IPipeHolder;
 import ct.buildcraft.api.transport.pipe.PipeApi;
+import ct.buildcraft.api.transport.pipe.PipeEvent;
+import ct.buildcraft.api.transport.pipe.PipeEventConnectionChange;
 import ct.buildcraft.api.transport.pipe.PipeEventHandler;
 import ct.buildcraft.api.transport.pipe.PipeEventItem;
+import ct.buildcraft.api.transport.pipe.PipeEventItemContext;
 import ct.buildcraft.api.transport.pipe.PipeEventStatement;
+import ct.buildcraft.api.transport.pipe.PipeEventTileState;
 import ct.buildcraft.api.transport.pipe.PipeFlow;
 import ct.buildcraft.lib.inventory.ItemTransactorHelper;
+import ct.buildcraft.lib.inventory.NeighbourTransactorCache;
 import ct.buildcraft.lib.inventory.NoSpaceTransactor;
 import ct.buildcraft.lib.misc.CapUtil;
 import ct.buildcraft.lib.misc.MessageUtil;
 import ct.buildcraft.lib.misc.StackUtil;
-import ct.buildcraft.lib.misc.data.DelayedList;
+import ct.buildcraft.lib.misc.data.DelayedRingList;
 import ct.buildcraft.lib.net.PacketBufferBC;
 import ct.buildcraft.lib.net.cache.BuildCraftObjectCaches;
 import ct.buildcraft.transport.BCTransportStatements;
 import ct.buildcraft.transport.net.MessageMultiPipeItem.TravellingItemData;
 import ct.buildcraft.transport.net.PipeItemMessageQueue;
 import ct.buildcraft.transport.pipe.Pipe;
+import ct.buildcraft.transport.pipe.PipeEventBus;
 import ct.buildcraft.transport.pipe.behaviour.PipeBehaviourStone;
+import ct.buildcraft.transport.tile.TilePipeHolder;
 import com.google.common.collect.ImmutableList;
 
 import net.minecraft.core.BlockPos;
@@ -67,7 +74,23 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
     private static final double EXTRACT_SPEED = 0.08;
     public static final int NET_CREATE_ITEM = 2;
 
-    private final DelayedList<TravellingItem> items = new DelayedList<>();
+    /** If nothing on a pipe listens to any of these then items going through it don't need to be routed. */
+    private static final List<Class<? extends PipeEvent>> ROUTING_EVENTS = ImmutableList.of(
+        PipeEventItem.ReachCenter.class, PipeEventItem.SideCheck.class, PipeEventItem.TryBounce.class,
+        PipeEventItem.Split.class, PipeEventItem.FindDest.class
+    );
+
+    private final DelayedRingList<TravellingItem> items = new DelayedRingList<>();
+    private final ItemRouteCache routeCache = new ItemRouteCache();
+    private final NeighbourTransactorCache transactors = new NeighbourTransactorCache();
+    /** The number of different kinds of item that {@link #tryExtractItems(int, Direction, DyeColor, IStackFilter,
+     * FluidAction)} looks for in one pass, so that if the first is refused by the pipe then the others can be tried
+     * without scanning the inventory again. */
+    private static final int MAX_EXTRACT_CANDIDATES = 4;
+    /** A bit mask of the two connected sides if items can pass straight through this pipe, 0 if they can't, or -1 if
+     * this needs to be recomputed. */
+    private int expressSides = -1;
+    private int expressHandlerChanges = -1;
 
     public PipeFlowItems(IPipe pipe) {
         super(pipe);
@@ -185,29 +208,31 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
             return 0;
         }
 
-        BlockEntity tile = pipe.getConnectedTile(from);
-        IItemTransactor trans = ItemTransactorHelper.getTransactor(tile, from.getOpposite());
-
-        ItemStack possible = trans.extract(filter, 1, count, true);
-
-        if (possible.isEmpty()) {
-            return 0;
-        }
-        if (possible.getCount() > possible.getMaxStackSize()) {
-            possible.setCount(possible.getMaxStackSize());
-            count = possible.getMaxStackSize();
-        }
+        IItemTransactor trans = transactors.getTransactor(from, pipe.getConnectedTile(from));
 
+        // Find every kind of item that could be extracted in a single pass, then offer each one to the pipe in turn
         IPipeHolder holder = pipe.getHolder();
-        PipeEventItem.TryInsert tryInsert = new PipeEventItem.TryInsert(holder, this, colour, from, possible);
-        holder.fireEvent(tryInsert);
-        if (tryInsert.isCanceled() || tryInsert.accepted <= 0) {
+        ItemStack possible = ItemStack.EMPTY;
+        for (ItemStack candidate : trans.extractStacks(filter, MAX_EXTRACT_CANDIDATES, count, true)) {
+            if (candidate.getCount() > candidate.getMaxStackSize()) {
+                candidate.setCount(candidate.getMaxStackSize());
+            }
+            PipeEventItem.TryInsert tryInsert = new PipeEventItem.TryInsert(holder, this, colour, from, candidate);
+            holder.fireEvent(tryInsert);
+            if (!tryInsert.isCanceled() && tryInsert.accepted > 0) {
+                possible = candidate;
+                count = Math.min(candidate.getCount(), tryInsert.accepted);
+                break;
+            }
+        }
+        if (possible.isEmpty()) {
             return 0;
         }
 
-        count = Math.min(count, tryInsert.accepted);
-
-        ItemStack stack = trans.extract(filter, count, count, simulate == FluidAction.SIMULATE);
+        ItemStack kind = possible;
+        IStackFilter kindFilter =
+            s -> (filter == null || filter.matches(s)) && ItemStack.isSameItemSameTags(s, kind);
+        ItemStack stack = trans.extract(kindFilter, count, count, simulate == FluidAction.SIMULATE);
 
         if (stack.isEmpty()) {
             throw new IllegalStateException(
@@ -234,6 +259,7 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         face2 = to;
 
         long now = pipe.getHolder().getPipeWorld().getGameTime();
+        pipe.getHolder().wakeUp();
 
         TravellingItem firstItem = new TravellingItem(stack);
         firstItem.isPhantom = true;
@@ -309,28 +335,54 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         }
     }
 
+    /** Clears the cached item routes of the given pipe, if it carries items. This must be called whenever something
+     * that a {@link PipeEventItem.SideCheck} handler looks at changes (for example the filters in a diamond pipe, or
+     * the direction of an iron pipe). Connection and pluggable changes are handled automatically. */
+    public static void invalidateRoutes(IPipe pipe) {
+        if (pipe.getFlow() instanceof PipeFlowItems) {
+            PipeFlowItems flow = (PipeFlowItems) pipe.getFlow();
+            flow.routeCache.clear();
+            flow.expressSides = -1;
+        }
+    }
+
     private void onItemReachCenter(TravellingItem item) {
+        PipeEventItemContext ctx = PipeEventItemContext.acquire();
+        try {
+            onItemReachCenter(item, ctx);
+        } finally {
+            ctx.release();
+        }
+    }
+
+    private void onItemReachCenter(TravellingItem item, PipeEventItemContext ctx) {
+        if (tryExpressReachCenter(item, ctx)) {
+            return;
+        }
         IPipeHolder holder = pipe.getHolder();
-        PipeEventItem.ReachCenter reachCenter = new PipeEventItem.ReachCenter(
-            holder, this, item.colour, item.stack, item.side
-        );
+        PipeEventItem.ReachCenter reachCenter = ctx.reachCenter(holder, this, item.colour, item.stack, item.side);
         holder.fireEvent(reachCenter);
         if (reachCenter.getStack().isEmpty()) {
             return;
         }
 
-        PipeEventItem.SideCheck sideCheck = new PipeEventItem.SideCheck(
-            holder, this, reachCenter.colour, reachCenter.from, reachCenter.getStack()
-        );
-        sideCheck.disallow(reachCenter.from);
-        for (Direction face : Direction.values()) {
-            if (item.tried.contains(face) || !pipe.isConnected(face)) {
-                sideCheck.disallow(face);
+        List<EnumSet<Direction>> order =
+            routeCache.get(reachCenter.getStack(), reachCenter.colour, reachCenter.from, item.tried);
+        if (order == null) {
+            PipeEventItem.SideCheck sideCheck = ctx.sideCheck(
+                holder, this, reachCenter.colour, reachCenter.from, reachCenter.getStack()
+            );
+            sideCheck.disallow(reachCenter.from);
+            for (Direction face : Direction.values()) {
+                if (item.tried.contains(face) || !pipe.isConnected(face)) {
+                    sideCheck.disallow(face);
+                }
             }
+            holder.fireEvent(sideCheck);
+            order = routeCache.put(
+                reachCenter.getStack(), reachCenter.colour, reachCenter.from, item.tried, sideCheck.getOrder()
+            );
         }
-        holder.fireEvent(sideCheck);
-
-        List<EnumSet<Direction>> order = sideCheck.getOrder();
         if (order.isEmpty()) {
             PipeEventItem.TryBounce tryBounce = new PipeEventItem.TryBounce(
                 holder, this, reachCenter.colour, reachCenter.from, reachCenter.getStack()
@@ -344,14 +396,11 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
             }
         }
 
-        PipeEventItem.ItemEntry entry = new PipeEventItem.ItemEntry(
-            reachCenter.colour, reachCenter.getStack(), reachCenter.from
-        );
-        PipeEventItem.Split split = new PipeEventItem.Split(holder, this, order, entry);
+        PipeEventItem.ItemEntry entry = ctx.itemEntry(reachCenter.colour, reachCenter.getStack(), reachCenter.from);
+        PipeEventItem.Split split = ctx.split(holder, this, order, entry);
         holder.fireEvent(split);
-        ImmutableList<PipeEventItem.ItemEntry> entries = ImmutableList.copyOf(split.items);
 
-        PipeEventItem.FindDest findDest = new PipeEventItem.FindDest(holder, this, order, entries);
+        PipeEventItem.FindDest findDest = ctx.findDest(holder, this, order, split.items);
         holder.fireEvent(findDest);
 
         Level world = holder.getPipeWorld();
@@ -360,29 +409,7 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
             if (itemEntry.stack.isEmpty()) {
                 continue;
             }
-            PipeEventItem.ModifySpeed modifySpeed = new PipeEventItem.ModifySpeed(holder, this, itemEntry, item.speed);
-
-            final double newSpeed;
-
-            if (holder.fireEvent(modifySpeed)) {
-                double target = modifySpeed.targetSpeed;
-                double maxDelta = modifySpeed.maxSpeedChange;
-                if (item.speed < target) {
-                    newSpeed = Math.min(target, item.speed + maxDelta);
-                } else if (item.speed > target) {
-                    newSpeed = Math.max(target, item.speed - maxDelta);
-                } else {
-                    newSpeed = item.speed;
-                }
-            } else {
-                // Nothing affected the speed
-                // so just fallback to a sensible default
-                if (item.speed > 0.03) {
-                    newSpeed = Math.max(0.03, item.speed - PipeBehaviourStone.SPEED_DELTA);
-                } else {
-                    newSpeed = item.speed;
-                }
-            }
+            double newSpeed = getNewSpeed(ctx, itemEntry, item.speed);
 
             List<Direction> destinations = itemEntry.to;
             if (destinations == null || destinations.size() == 0) {
@@ -404,12 +431,101 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         }
     }
 
+    private double getNewSpeed(PipeEventItemContext ctx, PipeEventItem.ItemEntry itemEntry, double speed) {
+        IPipeHolder holder = pipe.getHolder();
+        PipeEventItem.ModifySpeed modifySpeed = ctx.modifySpeed(holder, this, itemEntry, speed);
+
+        if (holder.fireEvent(modifySpeed)) {
+            double target = modifySpeed.targetSpeed;
+            double maxDelta = modifySpeed.maxSpeedChange;
+            if (speed < target) {
+                return Math.min(target, speed + maxDelta);
+            } else if (speed > target) {
+                return Math.max(target, speed - maxDelta);
+            } else {
+                return speed;
+            }
+        } else {
+            // Nothing affected the speed
+            // so just fallback to a sensible default
+            if (speed > 0.03) {
+                return Math.max(0.03, speed - PipeBehaviourStone.SPEED_DELTA);
+            } else {
+                return speed;
+            }
+        }
+    }
+
+    /** Moves an item straight through this pipe if it only has one other side to go to, and nothing on this pipe
+     * listens to the routing events. This gives exactly the same result as {@link #onItemReachCenter(TravellingItem,
+     * PipeEventItemContext)} but skips all of the events apart from {@link PipeEventItem.ModifySpeed}, and reuses the
+     * same {@link TravellingItem}.
+     *
+     * @return True if the item was moved, false if it needs to be routed normally. */
+    private boolean tryExpressReachCenter(TravellingItem item, PipeEventItemContext ctx) {
+        Direction exit = getExpressExit(item.side);
+        if (exit == null || item.tried.contains(exit)) {
+            return false;
+        }
+        PipeEventItem.ItemEntry entry = ctx.itemEntry(item.colour, item.stack, item.side);
+        item.speed = getNewSpeed(ctx, entry, item.speed);
+        item.toCenter = false;
+        item.side = exit;
+        item.genTimings(pipe.getHolder().getPipeWorld().getGameTime(), getPipeLength(exit));
+        items.add(item.timeToDest, item);
+        sendItemDataToClient(item);
+        return true;
+    }
+
+    /** @return The side that an item coming from the given side must leave through, or null if this pipe isn't a plain
+     *         pipe with exactly two connections (or the item didn't come from one of them). */
+    @Nullable
+    private Direction getExpressExit(Direction from) {
+        IPipeHolder holder = pipe.getHolder();
+        if (!(holder instanceof TilePipeHolder)) {
+            return null;
+        }
+        PipeEventBus eventBus = ((TilePipeHolder) holder).eventBus;
+        int changes = eventBus.getHandlerChanges();
+        if (changes != expressHandlerChanges) {
+            expressHandlerChanges = changes;
+            expressSides = -1;
+        }
+        if (expressSides == -1) {
+            expressSides = computeExpressSides(eventBus);
+        }
+        if (from == null || (expressSides & (1 << from.ordinal())) == 0) {
+            return null;
+        }
+        return Direction.from3DDataValue(Integer.numberOfTrailingZeros(expressSides & ~(1 << from.ordinal())));
+    }
+
+    private int computeExpressSides(PipeEventBus eventBus) {
+        for (Class<? extends PipeEvent> routingEvent : ROUTING_EVENTS) {
+            if (eventBus.hasHandlersFor(routingEvent)) {
+                return 0;
+            }
+        }
+        int sides = 0;
+        for (Direction face : Direction.values()) {
+            if (pipe.isConnected(face)) {
+                sides |= 1 << face.ordinal();
+            }
+        }
+        return Integer.bitCount(sides) == 2 ? sides : 0;
+    }
+
     private void onItemReachEnd(TravellingItem item) {
         IPipeHolder holder = pipe.getHolder();
-        PipeEventItem.ReachEnd reachEnd = new PipeEventItem.ReachEnd(holder, this, item.colour, item.stack, item.side);
-        holder.fireEvent(reachEnd);
-        item.colour = reachEnd.colour;
-        item.stack = reachEnd.getStack();
+        PipeEventItemContext ctx = PipeEventItemContext.acquire();
+        try {
+            PipeEventItem.ReachEnd reachEnd = ctx.reachEnd(holder, this, item.colour, item.stack, item.side);
+            holder.fireEvent(reachEnd);
+            item.colour = reachEnd.colour;
+            item.stack = reachEnd.getStack();
+        } finally {
+            ctx.release();
+        }
         ItemStack excess = item.stack;
         if (excess.isEmpty()) {
             return;
@@ -444,7 +560,7 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
                     excess = injectable.injectItem(excess.copy(), true, oppositeSide, item.colour, item.speed);
 
                     if (!excess.isEmpty()) {
-                        IItemTransactor transactor = ItemTransactorHelper.getTransactor(tile, oppositeSide);
+                        IItemTransactor transactor = transactors.getTransactor(item.side, tile);
                         excess = transactor.insert(excess, false, false);
                     }
                     excess = fireEventEjectIntoTile(tile, item.side, before, excess);
@@ -585,6 +701,7 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         // There's little point in trying to render it
         // seeing as it needs to travel 0 distance.
         items.add(item.timeToDest, item);
+        pipe.getHolder().wakeUp();
     }
 
     /** Used internally to split up manual insertions from controlled extractions. */
@@ -610,6 +727,7 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         item.genTimings(now, getPipeLength(from));
         item.tried.add(from);
         addItemTryMerge(item);
+        holder.wakeUp();
     }
 
     private void addItemTryMerge(TravellingItem item) {
@@ -624,11 +742,31 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         sendItemDataToClient(item);
     }
 
+    @PipeEventHandler
+    public void onConnectionChange(PipeEventConnectionChange event) {
+        transactors.invalidate(event.direction);
+    }
+
+    @PipeEventHandler
+    public void onInvalidate(PipeEventTileState.Invalidate event) {
+        transactors.invalidate();
+    }
+
+    @PipeEventHandler
+    public void onChunkUnload(PipeEventTileState.ChunkUnload event) {
+        transactors.invalidate();
+    }
+
     @PipeEventHandler
     public static void addTriggers(PipeEventStatement.AddTriggerInternal event) {
         event.triggers.add(BCTransportStatements.TRIGGER_ITEMS_TRAVERSING);
     }
 
+    @Override
+    public boolean isIdle() {
+        return !doesContainItems();
+    }
+
     public boolean doesContainItems() {
         // Note that this counts all items
         // (including phantom items, which is fine)
@@ -676,6 +814,16 @@ public final class PipeFlowItems extends PipeFlow implements IFlowItems {
         }
     }
 
+    /** @return The number of items in this pipe, without copying them all like {@link #getAllItemsForRender()}. */
+    @OnlyIn(Dist.CLIENT)
+    public int getItemCountForRender() {
+        int count = 0;
+        for (List<TravellingItem> innerList : items.getAllElements()) {
+            count += innerList.size();
+        }
+        return count;
+    }
+
     @OnlyIn(Dist.CLIENT)
     public List<TravellingItem> getAllItemsForRender() {
         List<TravellingItem> all = new ArrayList<>();
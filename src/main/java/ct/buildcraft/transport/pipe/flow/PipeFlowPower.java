@@ -7,9 +7,7 @@
 package ct.buildcraft.transport.pipe.flow;
 
 import java.io.IOException;
-import java.math.BigInteger;
 import java.util.Arrays;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.function.ToLongFunction;
 
@@ -28,12 +26,16 @@ import ct.buildcraft.api.transport.pipe.IPipe;
 import ct.buildcraft.api.transport.pipe.IPipe.ConnectedType;
 import ct.buildcraft.api.transport.pipe.PipeApi;
 import ct.buildcraft.api.transport.pipe.PipeApi.PowerTransferInfo;
+import ct.buildcraft.api.transport.pipe.PipeEventConnectionChange;
+import ct.buildcraft.api.transport.pipe.PipeEventHandler;
 import ct.buildcraft.api.transport.pipe.PipeEventPower;
+import ct.buildcraft.api.transport.pipe.PipeEventTileState;
 import ct.buildcraft.api.transport.pipe.PipeFlow;
 import ct.buildcraft.lib.misc.LocaleUtil;
 import ct.buildcraft.lib.misc.MathUtil;
 import ct.buildcraft.lib.misc.VecUtil;
 import ct.buildcraft.lib.misc.data.AverageInt;
+import ct.buildcraft.transport.BCTransportConfig;
 import ct.buildcraft.transport.pipe.Pipe;
 
 import net.minecraft.core.Direction;
@@ -51,6 +53,7 @@ import net.minecraftforge.fml.LogicalSide;
 
 public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
     private static final long DEFAULT_MAX_POWER = MjAPI.MJ * 10;
+    private static final Direction[] FACES = Direction.values();
     public static final int NET_POWER_AMOUNTS = 2;
 
     public Vec3 clientDisplayFlowCentre = Vec3.ZERO;
@@ -63,26 +66,35 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
     private long currentWorldTime;
 
+    /** Only used when {@link BCTransportConfig#kinesisNetworkMode} is enabled. */
+    private PowerPipeNetwork network;
+    /** The direction that power flows through each face when in a network, indexed by {@link Direction#ordinal()}. */
+    private EnumFlow[] networkFlows;
+
     private boolean isReceiver = false;
-    private final EnumMap<Direction, Section> sections;
+    /** Indexed by {@link Direction#ordinal()}. */
+    private final Section[] sections = new Section[6];
+    /** The capability handed out for each section, indexed by {@link Direction#ordinal()}. These are kept (rather than
+     * creating a new one for every request) so that they can be invalidated when the section stops being reachable-
+     * which tells anything that cached them (such as an engine) to look again. */
+    @SuppressWarnings("unchecked")
+    private final LazyOptional<Section>[] sectionCaps = new LazyOptional[6];
 
 //    private final SafeTimeTracker tracker = new SafeTimeTracker(BCCoreConfig.networkUpdateRate);
 //    private long[] transferQuery;
 
     public PipeFlowPower(IPipe pipe) {
         super(pipe);
-        sections = new EnumMap<>(Direction.class);
-        for (Direction face : Direction.values()) {
-            sections.put(face, new Section(face));
+        for (Direction face : FACES) {
+            sections[face.ordinal()] = new Section(face);
         }
     }
 
     public PipeFlowPower(IPipe pipe, CompoundTag nbt) {
         super(pipe, nbt);
         isReceiver = nbt.getBoolean("isReceiver");
-        sections = new EnumMap<>(Direction.class);
-        for (Direction face : Direction.values()) {
-            sections.put(face, new Section(face));
+        for (Direction face : FACES) {
+            sections[face.ordinal()] = new Section(face);
         }
     }
 
@@ -98,8 +110,7 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         super.writePayload(id, buffer, side);
         if (side == LogicalSide.SERVER) {
             if (id == NET_POWER_AMOUNTS || id == NET_ID_FULL_STATE) {
-                for (Direction face : Direction.values()) {
-                    Section s = sections.get(face);
+                for (Section s : sections) {
                     buffer.writeInt(s.displayPower);
                     buffer.writeEnum(s.displayFlow);
                 }
@@ -112,8 +123,7 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         super.readPayload(id, buffer, side);
         if (side == LogicalSide.CLIENT) {
             if (id == NET_POWER_AMOUNTS || id == NET_ID_FULL_STATE) {
-                for (Direction face : Direction.values()) {
-                    Section s = sections.get(face);
+                for (Section s : sections) {
                     s.displayPower = buffer.readInt();
                     s.displayFlow = buffer.readEnum(EnumFlow.class);
                 }
@@ -135,11 +145,13 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
             }
         }
         IMjConnector receiver = oTile.getCapability(MjAPI.CAP_CONNECTOR, face.getOpposite()).orElse(null);
-        return receiver != null && receiver.canConnect(sections.get(face));
+        return receiver != null && receiver.canConnect(sections[face.ordinal()]);
     }
 
     @Override
     public void reconfigure() {
+        boolean oldReceiver = isReceiver;
+        long oldMaxPower = maxPower, oldLoss = powerLoss, oldResistance = powerResistance;
         PipeEventPower.Configure configure = new PipeEventPower.Configure(pipe.getHolder(), this);
         PowerTransferInfo pti = PipeApi.getPowerTransferInfo(pipe.getDefinition());
         configure.setReceiver(pti.isReceiver);
@@ -164,6 +176,13 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         } else if (powerResistance < 0) {
             powerResistance = powerLoss * MjAPI.MJ / maxPower;
         }
+        if (oldReceiver != isReceiver || oldMaxPower != maxPower || oldLoss != powerLoss
+            || oldResistance != powerResistance) {
+            invalidateNetwork();
+        }
+        if (oldReceiver != isReceiver) {
+            invalidateCapabilities();
+        }
     }
 
     @Override
@@ -191,7 +210,7 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
     }
 
     public Section getSection(Direction side) {
-        return sections.get(side);
+        return sections[side.ordinal()];
     }
 
     @Override
@@ -199,9 +218,9 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         if (facing == null) {
             return LazyOptional.empty();
         } else if (capability == MjAPI.CAP_RECEIVER) {
-            return isReceiver ? LazyOptional.of(() -> sections.get(facing)).cast() : LazyOptional.empty();
+            return isReceiver ? getSectionCap(facing).cast() : LazyOptional.empty();
         } else if (capability == MjAPI.CAP_CONNECTOR) {
-            return LazyOptional.of(() -> sections.get(facing)).cast();
+            return getSectionCap(facing).cast();
         } else {
             return LazyOptional.empty();
         }
@@ -223,8 +242,8 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
     private String arrayToString(ToLongFunction<Section> getter) {
         long[] arr = new long[6];
-        for (Direction face : Direction.values()) {
-            arr[face.ordinal()] = getter.applyAsLong(sections.get(face)) / MjAPI.MJ;
+        for (int i = 0; i < 6; i++) {
+            arr[i] = getter.applyAsLong(sections[i]) / MjAPI.MJ;
         }
         return Arrays.toString(arr);
     }
@@ -236,8 +255,8 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         }
         if (pipe.getHolder().getPipeWorld().isClientSide()) {
             clientDisplayFlowCentreLast = clientDisplayFlowCentre;
-            for (Direction face : Direction.values()) {
-                Section s = sections.get(face);
+            for (Direction face : FACES) {
+                Section s = sections[face.ordinal()];
                 s.clientDisplayFlowLast = s.clientDisplayFlow;
                 double diff = s.displayFlow.value * 2.4 * face.getAxisDirection().getStep();
                 s.clientDisplayFlow += 16 + diff;
@@ -251,44 +270,41 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
             return;
         }
 
-        EnumFlow[] lastFlows = new EnumFlow[6];
-        int[] lastDisplayPower = new int[6];
+        for (Section s : sections) {
+            s.lastDisplayFlow = s.displayFlow;
+            s.lastDisplayPower = s.displayPower;
+        }
 
-        for (Direction face : Direction.values()) {
-            Section s = sections.get(face);
-            int i = face.ordinal();
-            lastFlows[i] = s.displayFlow;
-            lastDisplayPower[i] = s.displayPower;
+        if (BCTransportConfig.kinesisNetworkMode) {
+            onTickNetwork();
+            return;
         }
 
         step();
 
         init();
 
-        for (Direction face : Direction.values()) {
-            Section s = sections.get(face);
-            if (s.internalPower > 0) {
-                long totalPowerQuery = 0;
-                for (Direction face2 : Direction.values()) {
-                    if (face != face2) {
-                        totalPowerQuery += sections.get(face2).powerQuery;
-                    }
-                }
+        long totalPowerQuery = 0;
+        for (Section s : sections) {
+            totalPowerQuery += s.powerQuery;
+        }
 
-                if (totalPowerQuery > 0) {
-                    long unusedPowerQuery = totalPowerQuery;
-                    for (Direction face2 : Direction.values()) {
-                        if (face == face2) {
+        for (int i = 0; i < 6; i++) {
+            Section s = sections[i];
+            if (s.internalPower > 0) {
+                long unusedPowerQuery = totalPowerQuery - s.powerQuery;
+                if (unusedPowerQuery > 0) {
+                    for (int j = 0; j < 6; j++) {
+                        if (i == j) {
                             continue;
                         }
-                        Section s2 = sections.get(face2);
+                        Section s2 = sections[j];
                         if (s2.powerQuery > 0) {
                             long watts = Math.min(
-                                BigInteger.valueOf(s.internalPower).multiply(BigInteger.valueOf(s2.powerQuery)).divide(
-                                    BigInteger.valueOf(unusedPowerQuery)
-                                ).longValue(), s.internalPower
+                                MathUtil.mulDiv(s.internalPower, s2.powerQuery, unusedPowerQuery), s.internalPower
                             );
                             unusedPowerQuery -= s2.powerQuery;
+                            Direction face2 = FACES[j];
                             IPipe neighbour = pipe.getConnectedPipe(face2);
                             long leftover = watts;
                             if (
@@ -296,7 +312,7 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
                                     .isConnected(face2.getOpposite())
                             ) {
                                 PipeFlowPower oFlow = (PipeFlowPower) neighbour.getFlow();
-                                leftover = oFlow.sections.get(face2.getOpposite()).receivePowerInternal(watts);
+                                leftover = oFlow.sections[face2.getOpposite().ordinal()].receivePowerInternal(watts);
                             } else {
                                 IMjReceiver receiver = pipe.getHolder().getCapabilityFromPipe(
                                     face2, MjAPI.CAP_RECEIVER
@@ -320,15 +336,10 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
             }
         }
         // Render compute goes here
-        for (Section s : sections.values()) {
-            s.powerAverage.tick();
-            double value = s.powerAverage.getAverage() / maxPower;
-            value = Math.sqrt(value);
-            s.displayPower = (int) (value * MjAPI.MJ);
-        }
+        computeDisplayPower();
 
         // Compute the tiles requesting power that are not power pipes
-        for (Direction face : Direction.values()) {
+        for (Direction face : FACES) {
             if (pipe.getConnectedType(face) != ConnectedType.TILE) {
                 continue;
             }
@@ -341,24 +352,11 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
             }
         }
 
-        // Sum the amount of power requested on each side
-        long[] transferQueryTemp = new long[6];
-        for (Direction face : Direction.values()) {
-            if (!pipe.isConnected(face)) {
-                continue;
-            }
-            long query = 0;
-            for (Direction face2 : Direction.values()) {
-                if (face != face2) {
-                    query += sections.get(face2).powerQuery;
-                }
-            }
-            transferQueryTemp[face.ordinal()] = query;
-        }
-
-        // Transfer requested power to neighbouring pipes
-        for (Direction face : Direction.values()) {
-            if (transferQueryTemp[face.ordinal()] <= 0 || !pipe.isConnected(face)) {
+        // Transfer requested power to neighbouring pipes. The amount requested on each side is the sum of the queries
+        // of every other side (powerQuery only changes in step(), so the total from above is still correct).
+        for (Direction face : FACES) {
+            long query = totalPowerQuery - sections[face.ordinal()].powerQuery;
+            if (query <= 0 || !pipe.isConnected(face)) {
                 continue;
             }
             IPipe oPipe = pipe.getHolder().getNeighbourPipe(face);
@@ -366,33 +364,208 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
                 continue;
             }
             PipeFlowPower oFlow = (PipeFlowPower) oPipe.getFlow();
-            oFlow.requestPower(face.getOpposite(), transferQueryTemp[face.ordinal()]);
+            oFlow.requestPower(face.getOpposite(), query);
         }
         // Networking
-        boolean didChange = false;
-        for (Direction face : Direction.values()) {
-            Section s = sections.get(face);
-            int i = face.ordinal();
-            if (lastFlows[i] != s.displayFlow || lastDisplayPower[i] != s.displayPower) {
-                didChange = true;
-                break;
+        // if (tracker.markTimeIfDelay(pipe.getHolder().getPipeWorld())) {
+        sendDisplayIfChanged();
+        // }
+    }
+
+    /** Used instead of the normal per-pipe logic when {@link BCTransportConfig#kinesisNetworkMode} is enabled. The
+     * first pipe in the network to tick moves all of the power, every other pipe only updates its display values. */
+    private void onTickNetwork() {
+        step();
+        PowerPipeNetwork net = getNetwork();
+        net.solve(currentWorldTime);
+
+        long moved = net.getLastMoved();
+        if (moved > 0 && networkFlows != null) {
+            int throughput = (int) Math.min(moved, maxPower);
+            for (int i = 0; i < 6; i++) {
+                if (networkFlows[i] != EnumFlow.STATIONARY) {
+                    sections[i].displayFlow = networkFlows[i];
+                    sections[i].powerAverage.push(throughput);
+                }
             }
         }
+        computeDisplayPower();
+        sendDisplayIfChanged();
+    }
 
-        // if (tracker.markTimeIfDelay(pipe.getHolder().getPipeWorld())) {
-        if (didChange) {
-            sendPayload(NET_POWER_AMOUNTS);
+    private void computeDisplayPower() {
+        for (Section s : sections) {
+            s.powerAverage.tick();
+            double value = s.powerAverage.getAverage() / maxPower;
+            value = Math.sqrt(value);
+            s.displayPower = (int) (value * MjAPI.MJ);
         }
+    }
 
-//        transferQuery = transferQueryTemp;
-        // }
+    private void sendDisplayIfChanged() {
+        for (Section s : sections) {
+            if (s.lastDisplayFlow != s.displayFlow || s.lastDisplayPower != s.displayPower) {
+                sendPayload(NET_POWER_AMOUNTS);
+                return;
+            }
+        }
+    }
+
+    // Network mode
+
+    private PowerPipeNetwork getNetwork() {
+        if (network == null || !network.isValid()) {
+            network = PowerPipeNetwork.build(this);
+        }
+        return network;
+    }
+
+    void setNetwork(PowerPipeNetwork network) {
+        this.network = network;
+    }
+
+    void setNetworkFlows(EnumFlow[] flows) {
+        this.networkFlows = flows;
+    }
+
+    private LazyOptional<Section> getSectionCap(Direction side) {
+        LazyOptional<Section> cap = sectionCaps[side.ordinal()];
+        if (cap == null) {
+            Section section = sections[side.ordinal()];
+            cap = LazyOptional.of(() -> section);
+            sectionCaps[side.ordinal()] = cap;
+        }
+        return cap;
+    }
+
+    private void invalidateCapability(Direction side) {
+        LazyOptional<Section> cap = sectionCaps[side.ordinal()];
+        if (cap != null) {
+            sectionCaps[side.ordinal()] = null;
+            cap.invalidate();
+        }
+    }
+
+    private void invalidateCapabilities() {
+        for (Direction face : FACES) {
+            invalidateCapability(face);
+        }
+    }
+
+    private void invalidateNetwork() {
+        if (network != null) {
+            network.invalidate();
+            network = null;
+        }
+    }
+
+    @PipeEventHandler
+    public void onConnectionChange(PipeEventConnectionChange event) {
+        invalidateNetwork();
+        invalidateCapability(event.direction);
+    }
+
+    @PipeEventHandler
+    public void onInvalidate(PipeEventTileState.Invalidate event) {
+        invalidateNetwork();
+        invalidateCapabilities();
+    }
+
+    @PipeEventHandler
+    public void onChunkUnload(PipeEventTileState.ChunkUnload event) {
+        invalidateNetwork();
+        invalidateCapabilities();
+    }
+
+    /** Called when this pipe is added to a network, so that it doesn't invalidate the network when it first ticks. */
+    void ensureConfigured() {
+        if (maxPower == -1) {
+            reconfigure();
+        }
+    }
+
+    boolean isReceiver() {
+        return isReceiver;
+    }
+
+    long getMaxPower() {
+        return maxPower < 0 ? DEFAULT_MAX_POWER : maxPower;
+    }
+
+    long getPowerLoss() {
+        return Math.max(0, powerLoss);
+    }
+
+    long getPowerResistance() {
+        return Math.max(0, powerResistance);
+    }
+
+    void stepSections() {
+        step();
+    }
+
+    /** @return The power held by every section, ready to be sent this tick. */
+    long getStoredPower() {
+        long total = 0;
+        for (Section s : sections) {
+            total += s.internalPower;
+        }
+        return total;
+    }
+
+    void drainStoredPower(long amount) {
+        for (Section s : sections) {
+            long taken = Math.min(amount, s.internalPower);
+            s.internalPower -= taken;
+            amount -= taken;
+            if (amount <= 0) {
+                return;
+            }
+        }
+    }
+
+    /** Pulls power from any {@link IMjPassiveProvider} connected to this (receiving) pipe.
+     * 
+     * @return The power extracted, which has been added to the sections it came from. */
+    long extractFromProviders(long max) {
+        long extracted = 0;
+        for (Direction face : FACES) {
+            if (extracted >= max) {
+                break;
+            }
+            if (!pipe.isConnected(face) || pipe.getConnectedType(face) != ConnectedType.TILE) {
+                continue;
+            }
+            BlockEntity tile = pipe.getConnectedTile(face);
+            if (tile == null) {
+                continue;
+            }
+            IMjPassiveProvider provider =
+                tile.getCapability(MjAPI.CAP_PASSIVE_PROVIDER, face.getOpposite()).orElse(null);
+            if (provider != null) {
+                long got = provider.extractPower(0, max - extracted, false);
+                if (got > 0) {
+                    Section s = sections[face.ordinal()];
+                    s.internalPower += got;
+                    s.debugPowerInput += got;
+                    extracted += got;
+                }
+            }
+        }
+        return extracted;
+    }
+
+    void onNetworkPowerMoved(Direction face, long amount) {
+        sections[face.ordinal()].debugPowerOutput += amount;
     }
 
     private void step() {
         long now = pipe.getHolder().getPipeWorld().getGameTime();
         if (currentWorldTime != now) {
             currentWorldTime = now;
-            sections.values().forEach(Section::step);
+            for (Section s : sections) {
+                s.step();
+            }
         }
     }
 
@@ -403,7 +576,7 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
     private void requestPower(Direction from, long amount) {
         step();
 
-        Section s = sections.get(from);
+        Section s = sections[from.ordinal()];
         if (pipe.getBehaviour() instanceof IPipeTransportPowerHook) {
             s.nextPowerQuery += ((IPipeTransportPowerHook) pipe.getBehaviour()).requestPower(from, amount);
         } else {
@@ -412,11 +585,21 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         // s.nextPowerQuery = Math.min(s.nextPowerQuery, maxPower);
     }
 
+    /** @return This pipe's share of everything that the sinks in its network requested last tick, minus the power that
+     *         this pipe is already holding. */
+    private long getNetworkPowerRequested() {
+        if (network == null || !network.isValid() || network.getSourceCount() == 0) {
+            return 0;
+        }
+        long share = network.getLastDemand() / network.getSourceCount() - getStoredPower();
+        return MathUtil.clamp(share, 0, getMaxPower());
+    }
+
     public long getPowerRequested(@Nullable Direction side) {
         long req = 0;
-        for (Direction face : Direction.values()) {
-            if (side == null || face != side) {
-                req += sections.get(face).powerQuery;
+        for (Section s : sections) {
+            if (s.side != side) {
+                req += s.powerQuery;
             }
         }
         return req;
@@ -447,6 +630,10 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
         public long internalNextPower;
         public final AverageInt powerAverage = new AverageInt(10);
 
+        /** The display values at the start of the current tick, used to check if they need to be sent. */
+        EnumFlow lastDisplayFlow = EnumFlow.STATIONARY;
+        int lastDisplayPower;
+
         long powerQuery;
         long internalPower;
 
@@ -473,6 +660,9 @@ public class PipeFlowPower extends PipeFlow implements IFlowPower, IDebuggable {
 
         @Override
         public long getPowerRequested() {
+            if (BCTransportConfig.kinesisNetworkMode) {
+                return getNetworkPowerRequested();
+            }
             return PipeFlowPower.this.getPowerRequested(side);
         }
 
@@ -31,4 +31,9 @@ public class PipeFlowStructure extends PipeFlow {
     public boolean canConnect(Direction face, BlockEntity oTile) {
         return false;
     }
+
+    @Override
+    public boolean isIdle() {
+        return true;
+    }
 }
@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2017 SpaceToad and the BuildCraft team
+ * This Source Code Form is subject to the terms of the Mozilla Public License, v. 2.0. If a copy of the MPL was not
+ * distributed with this file, You can obtain one at https://mozilla.org/MPL/2.0/
+ */
+
+package ct.buildcraft.transport.pipe.flow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import ct.buildcraft.api.mj.IMjReceiver;
+import ct.buildcraft.api.mj.MjAPI;
+import ct.buildcraft.api.transport.pipe.IPipe;
+import ct.buildcraft.api.transport.pipe.IPipe.ConnectedType;
+import ct.buildcraft.lib.misc.MathUtil;
+import ct.buildcraft.transport.BCTransportConfig;
+import ct.buildcraft.transport.pipe.flow.PipeFlowPower.EnumFlow;
+
+import net.minecraft.core.Direction;
+import net.minecraftforge.fluids.capability.IFluidHandler.FluidAction;
+
+/** A cached graph of connected {@link PipeFlowPower} pipes, used when {@link BCTransportConfig#kinesisNetworkMode} is
+ * enabled. Instead of moving power one pipe per tick, power is moved directly from the receiving pipes (the sources)
+ * to every tile that requests power (the sinks) in a single solve per tick, with the configured loss applied for the
+ * path between them.
+ * <p>
+ * The graph is rebuilt lazily after any member pipe calls {@link #invalidate()} - which happens when a pipe is
+ * reconfigured, changes its connections, or is removed. */
+final class PowerPipeNetwork {
+    private static final Direction[] FACES = Direction.values();
+
+    /** Every pipe in this network. */
+    private final PipeFlowPower[] pipes;
+    /** Every receiving pipe (such as wooden kinesis pipes) in this network. */
+    private final PipeFlowPower[] sources;
+    /** Every face of a pipe that connects to a non-pipe tile, and isn't a source. */
+    private final Sink[] sinks;
+
+    private boolean valid = true;
+    private long lastSolveTick = Long.MIN_VALUE;
+    private long lastDemand;
+    private long lastMoved;
+
+    private PowerPipeNetwork(PipeFlowPower[] pipes, PipeFlowPower[] sources, Sink[] sinks) {
+        this.pipes = pipes;
+        this.sources = sources;
+        this.sinks = sinks;
+    }
+
+    static final class Sink {
+        final PipeFlowPower flow;
+        final Direction face;
+        /** The fraction of power (out of {@link MjAPI#MJ}) that arrives from each source, indexed by source. */
+        final long[] keepFromSource;
+        /** The absolute power lost on the path from each source, indexed by source. */
+        final long[] lossFromSource;
+
+        long demand;
+        IMjReceiver receiver;
+
+        Sink(PipeFlowPower flow, Direction face, int sourceCount) {
+            this.flow = flow;
+            this.face = face;
+            this.keepFromSource = new long[sourceCount];
+            this.lossFromSource = new long[sourceCount];
+        }
+    }
+
+    /** Finds every power pipe connected to the given one, and assigns the new network to all of them. */
+    static PowerPipeNetwork build(PipeFlowPower start) {
+        Map<PipeFlowPower, Integer> indices = new IdentityHashMap<>();
+        List<PipeFlowPower> pipes = new ArrayList<>();
+        ArrayDeque<PipeFlowPower> queue = new ArrayDeque<>();
+        indices.put(start, 0);
+        pipes.add(start);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            PipeFlowPower flow = queue.poll();
+            flow.ensureConfigured();
+            for (Direction face : FACES) {
+                PipeFlowPower other = getConnectedFlow(flow, face);
+                if (other != null && !indices.containsKey(other)) {
+                    indices.put(other, pipes.size());
+                    pipes.add(other);
+                    queue.add(other);
+                }
+            }
+        }
+
+        List<PipeFlowPower> sources = new ArrayList<>();
+        for (PipeFlowPower flow : pipes) {
+            if (flow.isReceiver()) {
+                sources.add(flow);
+            }
+        }
+        List<Sink> sinks = new ArrayList<>();
+        for (PipeFlowPower flow : pipes) {
+            if (flow.isReceiver()) {
+                continue;
+            }
+            for (Direction face : FACES) {
+                if (flow.pipe.isConnected(face) && flow.pipe.getConnectedType(face) == ConnectedType.TILE) {
+                    sinks.add(new Sink(flow, face, sources.size()));
+                }
+            }
+        }
+
+        PipeFlowPower[] pipeArray = pipes.toArray(new PipeFlowPower[0]);
+        PowerPipeNetwork network =
+            new PowerPipeNetwork(pipeArray, sources.toArray(new PipeFlowPower[0]), sinks.toArray(new Sink[0]));
+        network.computePathLosses(indices);
+        network.computeDisplayFlows(indices);
+        for (PipeFlowPower flow : pipeArray) {
+            flow.setNetwork(network);
+        }
+        return network;
+    }
+
+    private static PipeFlowPower getConnectedFlow(PipeFlowPower flow, Direction face) {
+        if (!flow.pipe.isConnected(face) || flow.pipe.getConnectedType(face) != ConnectedType.PIPE) {
+            return null;
+        }
+        IPipe other = flow.pipe.getConnectedPipe(face);
+        if (other == null || !(other.getFlow() instanceof PipeFlowPower) || !other.isConnected(face.getOpposite())) {
+            return null;
+        }
+        return (PipeFlowPower) other.getFlow();
+    }
+
+    /** Runs a breadth first search from every source, recording the loss along the shortest path to every sink. */
+    private void computePathLosses(Map<PipeFlowPower, Integer> indices) {
+        long[] keep = new long[pipes.length];
+        long[] loss = new long[pipes.length];
+        ArrayDeque<PipeFlowPower> queue = new ArrayDeque<>();
+        for (int si = 0; si < sources.length; si++) {
+            Arrays.fill(keep, -1);
+            PipeFlowPower source = sources[si];
+            int sourceIndex = indices.get(source);
+            keep[sourceIndex] = MjAPI.MJ;
+            loss[sourceIndex] = 0;
+            queue.add(source);
+            while (!queue.isEmpty()) {
+                PipeFlowPower flow = queue.poll();
+                int index = indices.get(flow);
+                for (Direction face : FACES) {
+                    PipeFlowPower other = getConnectedFlow(flow, face);
+                    if (other == null) {
+                        continue;
+                    }
+                    int oIndex = indices.get(other);
+                    if (keep[oIndex] >= 0) {
+                        continue;
+                    }
+                    keep[oIndex] = MathUtil.mulDiv(keep[index], MjAPI.MJ - other.getPowerResistance(), MjAPI.MJ);
+                    loss[oIndex] = loss[index] + other.getPowerLoss();
+                    queue.add(other);
+                }
+            }
+            for (Sink sink : sinks) {
+                int index = indices.get(sink.flow);
+                sink.keepFromSource[si] = Math.max(0, keep[index]);
+                sink.lossFromSource[si] = keep[index] < 0 ? Long.MAX_VALUE : loss[index];
+            }
+        }
+    }
+
+    /** Works out which way power flows through each pipe (towards the nearest sink) so that every pipe can display
+     * the flow without being part of the solve. */
+    private void computeDisplayFlows(Map<PipeFlowPower, Integer> indices) {
+        int[] distance = new int[pipes.length];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        ArrayDeque<PipeFlowPower> queue = new ArrayDeque<>();
+        for (Sink sink : sinks) {
+            int index = indices.get(sink.flow);
+            if (distance[index] != 0) {
+                distance[index] = 0;
+                queue.add(sink.flow);
+            }
+        }
+        while (!queue.isEmpty()) {
+            PipeFlowPower flow = queue.poll();
+            int index = indices.get(flow);
+            for (Direction face : FACES) {
+                PipeFlowPower other = getConnectedFlow(flow, face);
+                if (other != null && distance[indices.get(other)] == Integer.MAX_VALUE) {
+                    distance[indices.get(other)] = distance[index] + 1;
+                    queue.add(other);
+                }
+            }
+        }
+        for (int i = 0; i < pipes.length; i++) {
+            PipeFlowPower flow = pipes[i];
+            EnumFlow[] flows = new EnumFlow[6];
+            for (Direction face : FACES) {
+                EnumFlow value = EnumFlow.STATIONARY;
+                PipeFlowPower other = getConnectedFlow(flow, face);
+                if (other != null) {
+                    int oDist = distance[indices.get(other)];
+                    if (oDist < distance[i]) {
+                        value = EnumFlow.IN;
+                    } else if (oDist > distance[i]) {
+                        value = EnumFlow.OUT;
+                    }
+                } else if (flow.pipe.isConnected(face) && flow.pipe.getConnectedType(face) == ConnectedType.TILE) {
+                    value = flow.isReceiver() ? EnumFlow.OUT : EnumFlow.IN;
+                }
+                flows[face.ordinal()] = value;
+            }
+            flow.setNetworkFlows(flows);
+        }
+    }
+
+    boolean isValid() {
+        return valid;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    /** @return The total power requested by every sink during the last solve. */
+    long getLastDemand() {
+        return lastDemand;
+    }
+
+    /** @return The total power delivered to every sink during the last solve. */
+    long getLastMoved() {
+        return lastMoved;
+    }
+
+    int getSourceCount() {
+        return sources.length;
+    }
+
+    /** Moves power from every source to every sink. Only does anything the first time it is called in a tick. */
+    void solve(long now) {
+        if (lastSolveTick == now) {
+            return;
+        }
+        lastSolveTick = now;
+        lastMoved = 0;
+
+        long demandLeft = 0;
+        for (Sink sink : sinks) {
+            IMjReceiver receiver =
+                sink.flow.pipe.getHolder().getCapabilityFromPipe(sink.face, MjAPI.CAP_RECEIVER).orElse(null);
+            if (receiver != null && receiver.canReceive()) {
+                sink.receiver = receiver;
+                sink.demand = Math.min(receiver.getPowerRequested(), sink.flow.getMaxPower());
+                demandLeft += sink.demand;
+            } else {
+                sink.receiver = null;
+                sink.demand = 0;
+            }
+        }
+        lastDemand = demandLeft;
+
+        for (int si = 0; si < sources.length && demandLeft > 0; si++) {
+            PipeFlowPower source = sources[si];
+            source.stepSections();
+            long available = source.getStoredPower();
+            if (available < demandLeft) {
+                available += source.extractFromProviders(demandLeft - available);
+            }
+            available = Math.min(available, source.getMaxPower());
+            if (available <= 0) {
+                continue;
+            }
+
+            long spent = 0;
+            long unusedDemand = demandLeft;
+            for (Sink sink : sinks) {
+                if (sink.demand <= 0) {
+                    continue;
+                }
+                long share = Math.min(MathUtil.mulDiv(available, sink.demand, unusedDemand), available - spent);
+                unusedDemand -= sink.demand;
+                long delivered = applyLoss(share, sink, si);
+                if (delivered <= 0) {
+                    continue;
+                }
+                long accepted = delivered - sink.receiver.receivePower(delivered, FluidAction.EXECUTE);
+                if (accepted <= 0) {
+                    continue;
+                }
+                spent += accepted == delivered ? share : MathUtil.mulDiv(share, accepted, delivered);
+                sink.demand -= Math.min(sink.demand, accepted);
+                demandLeft -= Math.min(demandLeft, accepted);
+                lastMoved += accepted;
+                sink.flow.onNetworkPowerMoved(sink.face, accepted);
+            }
+            if (spent > 0) {
+                source.drainStoredPower(spent);
+            }
+        }
+    }
+
+    private static long applyLoss(long power, Sink sink, int sourceIndex) {
+        switch (BCTransportConfig.lossMode) {
+            case PERCENTAGE:
+                return MathUtil.mulDiv(power, sink.keepFromSource[sourceIndex], MjAPI.MJ);
+            case ABSOLUTE:
+                long loss = sink.lossFromSource[sourceIndex];
+                return loss >= power ? 0 : power - loss;
+            case LOSSLESS:
+            default:
+                return sink.lossFromSource[sourceIndex] == Long.MAX_VALUE ? 0 : power;
+        }
+    }
+}
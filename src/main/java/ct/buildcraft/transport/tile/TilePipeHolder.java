@@ -21,6 +21,7 @@ import ct.buildcraft.api.BCModules;
 import ct.buildcraft.api.core.BCLog;
 import ct.buildcraft.api.core.EnumPipePart;
 import ct.buildcraft.api.core.InvalidInputDataException;
+import ct.buildcraft.api.transport.IWireEmitter;
 import ct.buildcraft.api.transport.pipe.IFlowItems;
 import ct.buildcraft.api.transport.pipe.IItemPipe;
 import ct.buildcraft.api.transport.pipe.IPipe;
@@ -28,18 +29,23 @@ import ct.buildcraft.api.transport.pipe.IPipeHolder;
 import ct.buildcraft.api.transport.pipe.PipeApi;
 import ct.buildcraft.api.transport.pipe.PipeDefinition;
 import ct.buildcraft.api.transport.pipe.PipeEvent;
+import ct.buildcraft.api.transport.pipe.PipeEventConnectionChange;
 import ct.buildcraft.api.transport.pipe.PipeEventTileState;
 import ct.buildcraft.api.transport.pipe.PipeFlow;
 import ct.buildcraft.api.transport.pluggable.PipePluggable;
 import ct.buildcraft.lib.misc.AdvancementUtil;
+import ct.buildcraft.lib.misc.ColourUtil;
 import ct.buildcraft.lib.misc.data.IdAllocator;
 import ct.buildcraft.lib.tile.TileBC_Neptune;
 import ct.buildcraft.transport.BCTransportBlocks;
+import ct.buildcraft.transport.block.PipeShapeCache;
 import ct.buildcraft.transport.client.model.ModelPipe;
+import ct.buildcraft.transport.net.PipeUpdateMessageQueue;
 import ct.buildcraft.transport.pipe.Pipe;
 import ct.buildcraft.transport.pipe.PipeEventBus;
 import ct.buildcraft.transport.pipe.PluggableHolder;
 import ct.buildcraft.transport.wire.WireManager;
+import ct.buildcraft.transport.wire.WorldSavedDataWireSystems;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
@@ -87,6 +93,9 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
 
     private int[] redstoneValues = new int[6];
     private int[] oldRedstoneValues = new int[] { -1, -1, -1, -1, -1, -1 };
+    /** The colours (as a bit mask of {@link DyeColor#ordinal()}) that the wire emitter on each side was emitting last
+     * tick, or -1 if this hasn't checked yet. */
+    private final int[] emittedWireColours = new int[] { -1, -1, -1, -1, -1, -1 };
 
 /*    static {
         for (PipeMessageReceiver rec : PipeMessageReceiver.values()) {
@@ -106,6 +115,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
 
     public final WireManager wireManager = new WireManager(this);
     public final PipeEventBus eventBus = new PipeEventBus();
+    public final PipeShapeCache shapeCache = new PipeShapeCache();
     private final Map<Direction, PluggableHolder> pluggables = new EnumMap<>(Direction.class);
     private Pipe pipe = Pipe.EMPTY;
     private boolean scheduleRenderUpdate = true;
@@ -230,6 +240,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
 	@Override
     public void clearRemoved() {
         super.clearRemoved();
+        wakeUp();
         eventBus.fireEvent(new PipeEventTileState.Validate(this));
         wireManager.validate();
     }
@@ -251,6 +262,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
 
     @Override
     public void onNeighbourBlockChanged(Block block, BlockPos neighbour) {
+        wakeUp();
         if (level.isClientSide()) {
             return;
         }
@@ -265,7 +277,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
 
     public void update() {
 //    	if(level.isClientSide) return;
-        redstoneValues = new int[6];
+        Arrays.fill(redstoneValues, 0);
         // Tick objects
         if (pipe != Pipe.EMPTY) {
             pipe.onTick();
@@ -276,10 +288,17 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
 
         // Send network updates
         if (networkUpdates.size() > 0) {
-            // TODO: Multi-update messages! (multiple updates sent in a single message)
             Set<PipeMessageReceiver> parts = EnumSet.copyOf(networkUpdates);
-            for (PipeMessageReceiver part : parts) {
-                sendNetworkUpdate(getReceiverId(part));
+            if (level.isClientSide()) {
+                for (PipeMessageReceiver part : parts) {
+                    sendNetworkUpdate(getReceiverId(part));
+                }
+            } else {
+                int id = getUpdateId(parts);
+                PipeUpdateMessageQueue.appendUpdate(level, worldPosition, buffer -> {
+                    buffer.writeShort(id);
+                    writeUpdatePayload(parts, buffer);
+                });
             }
         }
         // No need to send gui updates to specific players if we just sent off messages to all players.
@@ -287,10 +306,13 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
         networkUpdates.clear();
 
         if (networkGuiUpdates.size() > 0) {
-            // TODO: Multi-update messages! (multiple updates sent in a single message)
             Set<PipeMessageReceiver> parts = EnumSet.copyOf(networkGuiUpdates);
-            for (PipeMessageReceiver part : parts) {
-                sendNetworkGuiUpdate(getReceiverId(part));
+            if (level.isClientSide()) {
+                for (PipeMessageReceiver part : parts) {
+                    sendNetworkGuiUpdate(getReceiverId(part));
+                }
+            } else {
+                createAndSendGuiMessage(getUpdateId(parts), buffer -> writeUpdatePayload(parts, buffer));
             }
         }
         networkGuiUpdates.clear();
@@ -301,6 +323,9 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
         }
 
         wireManager.tick();
+        if (!level.isClientSide()) {
+            updateWireEmitters();
+        }
 
         if (!Arrays.equals(redstoneValues, oldRedstoneValues)) {
             Block block = level.getBlockState(worldPosition).getBlock();
@@ -311,7 +336,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
                     level.updateNeighborsAt(worldPosition.offset(face.getNormal()), block);
                 }
             }
-            oldRedstoneValues = redstoneValues;
+            System.arraycopy(redstoneValues, 0, oldRedstoneValues, 0, redstoneValues.length);
         }
 
         /* It's difficult to check to see if we actually have changed at all. So let's just always mark the chunk as
@@ -319,8 +344,91 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
 //        markChunkDirty();
     }
 
+    /** Tells the wire systems about every colour that an emitting pluggable started or stopped emitting since the last
+     * tick, so that the wire systems never need to poll the emitters themselves. */
+    private void updateWireEmitters() {
+        for (Direction face : Direction.values()) {
+            int index = face.ordinal();
+            PipePluggable plug = pluggables.get(face).pluggable;
+            int last = emittedWireColours[index];
+            if (!(plug instanceof IWireEmitter)) {
+                // Removing an emitter rebuilds (and re-polls) the systems around it, so there's nothing to report
+                emittedWireColours[index] = 0;
+                continue;
+            }
+            IWireEmitter emitter = (IWireEmitter) plug;
+            int emitted = 0;
+            for (DyeColor colour : ColourUtil.COLOURS) {
+                if (emitter.isEmitting(colour)) {
+                    emitted |= 1 << colour.ordinal();
+                }
+            }
+            if (emitted == last) {
+                continue;
+            }
+            // If this hasn't checked before then every colour is reported, in case the systems have an old state
+            int changed = emitted ^ last;
+            WorldSavedDataWireSystems wireSystems = wireManager.getWireSystems();
+            for (DyeColor colour : ColourUtil.COLOURS) {
+                int bit = 1 << colour.ordinal();
+                if ((changed & bit) != 0) {
+                    wireSystems.onEmitterChanged(worldPosition, face, colour, (emitted & bit) != 0);
+                }
+            }
+            emittedWireColours[index] = emitted;
+        }
+    }
+
+    @Override
+    protected boolean canSleep() {
+        if (level.isClientSide() || scheduleRenderUpdate || !wireManager.initialised) {
+            return false;
+        }
+        if (!networkUpdates.isEmpty() || !networkGuiUpdates.isEmpty()) {
+            return false;
+        }
+        for (int value : redstoneValues) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        if (pipe != Pipe.EMPTY && !pipe.isIdle()) {
+            return false;
+        }
+        for (PluggableHolder holder : pluggables.values()) {
+            // Wire emitters are checked every tick in updateWireEmitters()
+            if (!holder.pluggable.isIdle() || holder.pluggable instanceof IWireEmitter) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     // Network
 
+    /** @return The message id to send the given parts with: either the id of the only part, or
+     *         {@link #NET_UPDATE_MULTI}. */
+    private static int getUpdateId(Set<PipeMessageReceiver> parts) {
+        return parts.size() == 1 ? getReceiverId(parts.iterator().next()) : NET_UPDATE_MULTI;
+    }
+
+    /** Writes the payload for {@link #getUpdateId(Set)}, so that every part that changed is sent in a single
+     * message. */
+    private void writeUpdatePayload(Set<PipeMessageReceiver> parts, FriendlyByteBuf buffer) {
+        if (parts.size() == 1) {
+            writePayload(getReceiverId(parts.iterator().next()), buffer, LogicalSide.SERVER);
+            return;
+        }
+        int total = 0;
+        for (PipeMessageReceiver part : parts) {
+            total |= 1 << part.ordinal();
+        }
+        buffer.writeShort(total);
+        for (PipeMessageReceiver part : parts) {
+            writePayload(getReceiverId(part), buffer, LogicalSide.SERVER);
+        }
+    }
+
     @Override
     public void writePayload(int id, FriendlyByteBuf buffer, LogicalSide side) {
         super.writePayload(id, buffer, side);
@@ -385,7 +493,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
                 }
                 wireManager.readPayload(buffer, side, ctx);
             } else if (id == NET_UPDATE_MULTI) {
-                int total = buffer.readUnsignedByte();
+                int total = buffer.readUnsignedShort();
                 for (PipeMessageReceiver type : PipeMessageReceiver.values()) {
                     if (((total >> type.ordinal()) & 1) == 1) {
                         readPayload(getReceiverId(type), buffer, side, ctx);
@@ -457,6 +565,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
     }
 
     public PipePluggable replacePluggable(Direction side, PipePluggable with) {
+        wakeUp();
         redstoneValues = new int[6];
         PluggableHolder holder = pluggables.get(side);
         PipePluggable old = holder.pluggable;
@@ -468,6 +577,10 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
         if (pipe != Pipe.EMPTY) {
             pipe.markForUpdate();
         }
+        if (old != with) {
+            // The pluggable decides what the pipe exposes on this side, so anything cached from it needs to be dropped
+            eventBus.fireEvent(new PipeEventConnectionChange(this, side));
+        }
         if (!level.isClientSide()) {
             if (old != with) {
                 wireManager.getWireSystems().rebuildWireSystemsAround(this);
@@ -516,16 +629,19 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
     @Override
     public void scheduleRenderUpdate() {
         scheduleRenderUpdate = true;
+        wakeUp();
     }
 
     @Override
     public void scheduleNetworkUpdate(PipeMessageReceiver... parts) {
         Collections.addAll(networkUpdates, parts);
+        wakeUp();
     }
 
     @Override
     public void scheduleNetworkGuiUpdate(PipeMessageReceiver... parts) {
         Collections.addAll(networkGuiUpdates, parts);
+        wakeUp();
     }
 
     @Override
@@ -559,6 +675,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
 
     @Override
     public boolean setRedstoneOutput(Direction side, int value) {
+        wakeUp();
         if (side == null) {
             for (Direction facing : Direction.values()) {
                 redstoneValues[facing.ordinal()] = value;
@@ -577,6 +694,7 @@ public class TilePipeHolder extends TileBC_Neptune implements IPipeHolder/*, ITi
 
     @Override
     public <T> @NotNull LazyOptional<T> getCapability(@Nonnull Capability<T> capability, Direction facing) {
+        wakeUp();
         if (facing != null) {
             PipePluggable plug = getPluggable(facing);
             if (plug != PipePluggable.EMPTY) {
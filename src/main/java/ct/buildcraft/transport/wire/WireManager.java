@@ -69,8 +69,8 @@ public class WireManager implements IWireManager {
         if (!initialised) {
             initialised = true;
             if (!holder.getPipeWorld().isClientSide()) {
-                for (EnumWirePart part : parts.keySet()) {
-                    getWireSystems().buildAndAddWireSystem(new WireSystem.WireElement(holder.getPipePos(), part));
+                for (Entry<EnumWirePart, DyeColor> entry : parts.entrySet()) {
+                    getWireSystems().addWirePart(holder, entry.getKey(), entry.getValue());
                 }
             }
             updateBetweens(false);
@@ -82,7 +82,7 @@ public class WireManager implements IWireManager {
         if (getColorOfPart(part) == null) {
             parts.put(part, colour);
             if (!holder.getPipeWorld().isClientSide()) {
-                getWireSystems().buildAndAddWireSystem(new WireSystem.WireElement(holder.getPipePos(), part));
+                getWireSystems().addWirePart(holder, part, colour);
                 holder.getPipeTile().setChanged();
             }
             updateBetweens(false);
@@ -100,10 +100,7 @@ public class WireManager implements IWireManager {
         } else {
             parts.remove(part);
             if (!holder.getPipeWorld().isClientSide()) {
-                WireSystem.WireElement element = new WireSystem.WireElement(holder.getPipePos(), part);
-                WireSystem.getConnectedElementsOfElement(holder, element)
-                    .forEach(getWireSystems()::buildAndAddWireSystem);
-                getWireSystems().getWireSystemsWithElement(element).forEach(getWireSystems()::removeWireSystem);
+                getWireSystems().removeWirePart(holder.getPipePos(), part);
                 holder.getPipeTile().setChanged();
             }
             updateBetweens(false);
@@ -120,12 +117,10 @@ public class WireManager implements IWireManager {
     }
 
     private void removePartsFromSystem(Collection<EnumWirePart> toRemove) {
-        toRemove.stream().map(part -> new WireSystem.WireElement(holder.getPipePos(), part))
-            .flatMap(element -> WireSystem.getConnectedElementsOfElement(holder, element).stream()).distinct()
-            .forEach(getWireSystems()::buildAndAddWireSystem);
-        toRemove.stream().map(part -> new WireSystem.WireElement(holder.getPipePos(), part))
-            .flatMap(element -> getWireSystems().getWireSystemsWithElement(element).stream())
-            .forEach(getWireSystems()::removeWireSystem);
+        WorldSavedDataWireSystems wireSystems = getWireSystems();
+        for (EnumWirePart part : toRemove) {
+            wireSystems.removeWirePart(holder.getPipePos(), part);
+        }
 //        holder.getPipeTile().setChanged();
     }
 
@@ -53,6 +53,15 @@ public final class WireSystem {
     private transient final int cachedHashCode;
     private transient final int cachedWiresHashCode;
 
+    /** The emitters in this system that are currently emitting {@link #color}. Only used on the server, and kept up to
+     * date by {@link WorldSavedDataWireSystems}. This is a set (rather than a count) so that being told about the same
+     * emitter state twice doesn't change anything. */
+    transient final Set<WireElement> poweredEmitters = new HashSet<>();
+    /** The {@link WireElement.Type#EMITTER_SIDE} elements of {@link #elements}, found the first time they are needed. */
+    private transient ImmutableList<WireElement> emitters;
+
+    private transient long[] chunkKeys;
+
     public boolean hasElement(WireElement element) {
         return elements.contains(element);
     }
@@ -177,8 +186,50 @@ public final class WireSystem {
     }
 
     public boolean update(WorldSavedDataWireSystems wireSystems) {
-        return elements.stream().filter(element -> element.type == WireElement.Type.EMITTER_SIDE).map(element -> wireSystems.isEmitterEmitting(element, color)).reduce(Boolean::logicalOr).orElse(
-            false);
+        return countPoweredEmitters(wireSystems) > 0;
+    }
+
+    /** @return Every emitter in this system. */
+    public ImmutableList<WireElement> getEmitters() {
+        if (emitters == null) {
+            emitters = elements.stream().filter(element -> element.type == WireElement.Type.EMITTER_SIDE)
+                .collect(ImmutableList.toImmutableList());
+        }
+        return emitters;
+    }
+
+    /** @return True if this system contains at least one emitter. */
+    public boolean hasEmitters() {
+        return !getEmitters().isEmpty();
+    }
+
+    /** Polls the emitters in this system, and updates {@link #poweredEmitters} to match. Only used when a system is
+     * created or loaded- after that the emitters report their own changes.
+     * 
+     * @return True if any emitter changed. */
+    boolean pollEmitters(WorldSavedDataWireSystems wireSystems) {
+        boolean changed = false;
+        for (WireElement element : getEmitters()) {
+            if (wireSystems.isEmitterEmitting(element, color)) {
+                changed |= poweredEmitters.add(element);
+            } else {
+                changed |= poweredEmitters.remove(element);
+            }
+        }
+        return changed;
+    }
+
+    /** Polls every emitter in this system.
+     * 
+     * @return The number of emitters that are emitting this system's colour. */
+    public int countPoweredEmitters(WorldSavedDataWireSystems wireSystems) {
+        int count = 0;
+        for (WireElement element : getEmitters()) {
+            if (wireSystems.isEmitterEmitting(element, color)) {
+                count++;
+            }
+        }
+        return count;
     }
 
     public List<ChunkPos> getChunkPoses() {
@@ -188,6 +239,14 @@ public final class WireSystem {
     public Stream<ChunkPos> getChunkPosesAsStream() {
         return elements.stream().map(element -> new ChunkPos(element.blockPos));
     }
+
+    /** @return Every distinct chunk (as {@link ChunkPos#toLong()}) that this system has an element in. */
+    public long[] getChunkKeys() {
+        if (chunkKeys == null) {
+            chunkKeys = elements.stream().mapToLong(element -> ChunkPos.asLong(element.blockPos)).distinct().toArray();
+        }
+        return chunkKeys;
+    }
     
 
     public boolean isPlayerWatching(Player player) {
@@ -7,15 +7,13 @@
 package ct.buildcraft.transport.wire;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-
-import org.apache.commons.lang3.tuple.Pair;
+import java.util.Set;
 
 import ct.buildcraft.api.core.BCLog;
 import ct.buildcraft.api.transport.EnumWirePart;
@@ -23,13 +21,24 @@ import ct.buildcraft.api.transport.IWireEmitter;
 import ct.buildcraft.api.transport.pipe.IPipeHolder;
 import ct.buildcraft.api.transport.pluggable.PipePluggable;
 import ct.buildcraft.lib.net.MessageManager;
+import com.google.common.collect.ImmutableList;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ChunkMap;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.DyeColor;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.entity.BlockEntity;
 import net.minecraft.world.level.saveddata.SavedData;
@@ -39,19 +48,28 @@ public class WorldSavedDataWireSystems extends SavedData {
     public static final String DATA_NAME = "buildcraft_wire_systems";
     public Level world;
     public final Map<WireSystem, Boolean> wireSystems = new HashMap<>();
+    /** If true then every system (including ones in unloaded chunks) will re-poll all of its emitters next tick. This is
+     * only needed once after loading, as after that emitters report their own changes through
+     * {@link #onEmitterChanged(BlockPos, Direction, DyeColor, boolean)}. */
     public boolean gatesChanged = true;
     public boolean structureChanged = true;
-    public final List<WireSystem> changedSystems = new ArrayList<>();
-    public final List<Player> changedPlayers = new ArrayList<>();
+    public final Set<WireSystem> changedSystems = new LinkedHashSet<>();
+    public final Set<Player> changedPlayers = new HashSet<>();
     public final Map<WireSystem.WireElement, IWireEmitter> emittersCache = new HashMap<>();
 
     private final Map<WireSystem.WireElement, List<WireSystem>> elementsToWireSystemsIndex = new HashMap<>();
+    /** Systems that had an element removed, and so might have been split into several. These are only checked (with a
+     * full flood fill) once per tick in {@link #tick()}, no matter how many elements were removed from them. */
+    private final Set<WireSystem> pendingSplitChecks = new LinkedHashSet<>();
+    /** Map of {@link ChunkPos#toLong()} to every system with an element in that chunk. */
+    private final Long2ObjectMap<Set<WireSystem>> chunkToWireSystemsIndex = new Long2ObjectOpenHashMap<>();
+    /** Chunks that gained or lost a system since the last sync. */
+    private final LongSet changedChunks = new LongOpenHashSet();
 
     public WorldSavedDataWireSystems() {}
 
     public void markStructureChanged() {
         structureChanged = true;
-        gatesChanged = true;
         emittersCache.clear();
     }
 
@@ -66,12 +84,20 @@ public class WorldSavedDataWireSystems extends SavedData {
 
     public void removeWireSystem(WireSystem wireSystem) {
         wireSystems.remove(wireSystem);
+        pendingSplitChecks.remove(wireSystem);
         wireSystem.elements.forEach(elementIn -> {
             elementsToWireSystemsIndex.computeIfPresent(elementIn, (element, wireSystems) -> {
                 wireSystems.remove(wireSystem);
                 return wireSystems.isEmpty() ? null : wireSystems;
             });
         });
+        for (long chunkKey : wireSystem.getChunkKeys()) {
+            Set<WireSystem> inChunk = chunkToWireSystemsIndex.get(chunkKey);
+            if (inChunk != null && inChunk.remove(wireSystem) && inChunk.isEmpty()) {
+                chunkToWireSystemsIndex.remove(chunkKey);
+            }
+            changedChunks.add(chunkKey);
+        }
         markStructureChanged();
     }
 
@@ -84,23 +110,185 @@ public class WorldSavedDataWireSystems extends SavedData {
                 }
                 wireSystemsWithElement.add(wireSystem);
             });
+            for (long chunkKey : wireSystem.getChunkKeys()) {
+                chunkToWireSystemsIndex.computeIfAbsent(chunkKey, k -> new HashSet<>()).add(wireSystem);
+                changedChunks.add(chunkKey);
+            }
         }
     }
 
+    /** Adds the given system, polling its emitters to find out if it is powered. */
+    private void addWireSystemAndCount(WireSystem wireSystem) {
+        wireSystem.pollEmitters(this);
+        addWireSystem(wireSystem, !wireSystem.poweredEmitters.isEmpty());
+        changedSystems.add(wireSystem);
+    }
+
+    private void setPowered(WireSystem wireSystem, boolean powered) {
+        Boolean old = wireSystems.put(wireSystem, powered);
+        if (old != null && old != powered) {
+            changedSystems.add(wireSystem);
+        }
+    }
+
+    /** Builds a whole system by flood filling from the given element. Prefer
+     * {@link #addWirePart(IPipeHolder, EnumWirePart, DyeColor)} and {@link #removeWirePart(BlockPos, EnumWirePart)}
+     * when a single part changes. */
     public void buildAndAddWireSystem(WireSystem.WireElement element) {
         WireSystem wireSystem = new WireSystem(this, element);
         if(!wireSystem.isEmpty()) {
-            this.addWireSystem(wireSystem, false);
-            wireSystems.put(wireSystem, wireSystem.update(this));
+            addWireSystemAndCount(wireSystem);
+        }
+        markStructureChanged();
+    }
+
+    /** Adds a single wire part to the systems around it. Every neighbouring system of the same colour is merged
+     * together with the new part (and any emitters in its pipe), so no flood fill is needed. */
+    public void addWirePart(IPipeHolder holder, EnumWirePart part, DyeColor colour) {
+        BlockPos pos = holder.getPipePos();
+        WireSystem.WireElement element = new WireSystem.WireElement(pos, part);
+
+        Set<WireSystem> toMerge = new LinkedHashSet<>();
+        for (WireSystem wireSystem : getWireSystemsWithElementAsReadOnlyList(element)) {
+            if (wireSystem.color == colour) {
+                toMerge.add(wireSystem);
+            }
+        }
+        for (WireSystem.WireElement connected : WireSystem.getConnectedElementsOfElement(holder, element)) {
+            for (WireSystem wireSystem : getWireSystemsWithElementAsReadOnlyList(connected)) {
+                if (wireSystem.color == colour) {
+                    toMerge.add(wireSystem);
+                }
+            }
+        }
+
+        List<WireSystem.WireElement> emitters = new ArrayList<>();
+        for (Direction side : Direction.values()) {
+            if (holder.getPluggable(side) instanceof IWireEmitter) {
+                emitters.add(new WireSystem.WireElement(pos, side));
+            }
+        }
+
+        if (toMerge.size() == 1) {
+            WireSystem existing = toMerge.iterator().next();
+            if (existing.hasElement(element) && existing.elements.containsAll(emitters)) {
+                // Common when a chunk is loaded: the saved system already contains this part
+                return;
+            }
+        }
+
+        Set<WireSystem.WireElement> elements = new LinkedHashSet<>();
+        boolean needsSplitCheck = false;
+        for (WireSystem wireSystem : toMerge) {
+            elements.addAll(wireSystem.elements);
+            needsSplitCheck |= pendingSplitChecks.contains(wireSystem);
+            removeWireSystem(wireSystem);
+        }
+        elements.add(element);
+        elements.addAll(emitters);
+
+        WireSystem merged = new WireSystem(ImmutableList.copyOf(elements), colour);
+        addWireSystemAndCount(merged);
+        if (needsSplitCheck) {
+            pendingSplitChecks.add(merged);
+        }
+        markStructureChanged();
+    }
+
+    /** Removes a single wire part from every system that contains it. The remaining elements are kept together as a
+     * single system until the next {@link #tick()}, when it is checked to see if it was split into several. */
+    public void removeWirePart(BlockPos pos, EnumWirePart part) {
+        WireSystem.WireElement element = new WireSystem.WireElement(pos, part);
+        for (WireSystem wireSystem : getWireSystemsWithElement(element)) {
+            removeWireSystem(wireSystem);
+
+            boolean otherPartsInPipe = false;
+            for (WireSystem.WireElement e : wireSystem.elements) {
+                if (e.type == WireSystem.WireElement.Type.WIRE_PART && e.blockPos.equals(pos) && e.wirePart != part) {
+                    otherPartsInPipe = true;
+                    break;
+                }
+            }
+
+            ImmutableList.Builder<WireSystem.WireElement> remaining = ImmutableList.builder();
+            boolean hasWires = false;
+            for (WireSystem.WireElement e : wireSystem.elements) {
+                if (e.equals(element)) {
+                    continue;
+                }
+                if (e.type == WireSystem.WireElement.Type.EMITTER_SIDE && e.blockPos.equals(pos) && !otherPartsInPipe) {
+                    continue;
+                }
+                hasWires |= e.type == WireSystem.WireElement.Type.WIRE_PART;
+                remaining.add(e);
+            }
+            if (hasWires) {
+                WireSystem provisional = new WireSystem(remaining.build(), wireSystem.color);
+                addWireSystemAndCount(provisional);
+                pendingSplitChecks.add(provisional);
+            }
         }
         markStructureChanged();
     }
 
+    /** Re-adds every wire part in the given pipe, for when something other than the wires themselves changed (for
+     * example a pluggable that blocks wires or emits into them). */
     public void rebuildWireSystemsAround(IPipeHolder holder) {
-        Arrays.stream(EnumWirePart.values())
-                .flatMap(part -> WireSystem.getConnectedElementsOfElement(world, new WireSystem.WireElement(holder.getPipePos(), part)).stream())
-                .distinct()
-                .forEach(this::buildAndAddWireSystem);
+        for (EnumWirePart part : EnumWirePart.VALUES) {
+            DyeColor colour = holder.getWireManager().getColorOfPart(part);
+            if (colour != null) {
+                removeWirePart(holder.getPipePos(), part);
+                addWirePart(holder, part, colour);
+            }
+        }
+    }
+
+    /** Flood fills every system that might have been split by {@link #removeWirePart(BlockPos, EnumWirePart)}. */
+    private void processPendingSplits() {
+        if (pendingSplitChecks.isEmpty()) {
+            return;
+        }
+        Set<WireSystem.WireElement> toCover = new LinkedHashSet<>();
+        for (WireSystem wireSystem : new ArrayList<>(pendingSplitChecks)) {
+            for (WireSystem.WireElement element : wireSystem.elements) {
+                if (element.type == WireSystem.WireElement.Type.WIRE_PART) {
+                    toCover.add(element);
+                }
+            }
+            removeWireSystem(wireSystem);
+        }
+        pendingSplitChecks.clear();
+
+        Set<WireSystem.WireElement> covered = new HashSet<>();
+        for (WireSystem.WireElement element : toCover) {
+            if (covered.contains(element)) {
+                continue;
+            }
+            WireSystem wireSystem = new WireSystem(this, element);
+            covered.addAll(wireSystem.elements);
+            if (!wireSystem.isEmpty()) {
+                addWireSystemAndCount(wireSystem);
+            }
+        }
+        markStructureChanged();
+    }
+
+    /** Called (by the pipe holding an {@link IWireEmitter}) whenever the emitter starts or stops emitting a colour. This
+     * only updates the powered emitters of the systems of that colour that contain the emitter, so nothing is polled.
+     * Reporting the same state more than once has no effect. */
+    public void onEmitterChanged(BlockPos pos, Direction side, DyeColor colour, boolean emitting) {
+        WireSystem.WireElement element = new WireSystem.WireElement(pos, side);
+        for (WireSystem wireSystem : getWireSystemsWithElementAsReadOnlyList(element)) {
+            if (wireSystem.color != colour) {
+                continue;
+            }
+            if (emitting) {
+                wireSystem.poweredEmitters.add(element);
+            } else {
+                wireSystem.poweredEmitters.remove(element);
+            }
+            setPowered(wireSystem, !wireSystem.poweredEmitters.isEmpty());
+        }
     }
 
     public IWireEmitter getEmitter(WireSystem.WireElement element) {
@@ -141,41 +329,109 @@ public class WorldSavedDataWireSystems extends SavedData {
     }
 
     public void tick() {
+        processPendingSplits();
         if(gatesChanged) {
+            gatesChanged = false;
+            for (WireSystem wireSystem : wireSystems.keySet()) {
+                wireSystem.poweredEmitters.clear();
+            }
             wireSystems.replaceAll((wireSystem, oldPowered) -> {
-                boolean newPowered = wireSystem.update(this);
+                wireSystem.pollEmitters(this);
+                boolean newPowered = !wireSystem.poweredEmitters.isEmpty();
                 if (oldPowered != newPowered) {
                     changedSystems.add(wireSystem);
                 }
                 return newPowered;
             });
         }
-        //to debug
-        if(!world.isClientSide)
-        ((ServerLevel)world).players().forEach(player -> {
-            Map<Integer, WireSystem> changedWires = this.wireSystems.keySet().stream()
-                    .filter(wireSystem -> wireSystem.isPlayerWatching(player) && (structureChanged || changedPlayers.contains(player)))
-                    .collect(Collectors.toMap(WireSystem::getWiresHashCode, Function.identity()));
-            if(!changedWires.isEmpty()) {
-                MessageManager.sendTo(new MessageWireSystems(changedWires), player);
-            }
-            Map<Integer, Boolean> hashesPowered = this.wireSystems.entrySet().stream()
-                    .filter(systemPower ->
-                            systemPower.getKey().isPlayerWatching(player) &&
-                                    (structureChanged || changedSystems.contains(systemPower.getKey()) || changedPlayers.contains(player))
-                    )
-                    .map(systemPowered -> Pair.of(systemPowered.getKey().getWiresHashCode(), systemPowered.getValue()))
-                    .collect(Collectors.toMap(Pair::getLeft, Pair::getRight));
-            if(!hashesPowered.isEmpty()) {
-                MessageManager.sendTo(new MessageWireSystemsPowered(hashesPowered), player);
-            }
-        });
+        if(!world.isClientSide) {
+            syncToPlayers((ServerLevel) world);
+        }
         if(structureChanged || !changedSystems.isEmpty()) {
             setDirty();
         }
         structureChanged = false;
         changedSystems.clear();
         changedPlayers.clear();
+        changedChunks.clear();
+    }
+
+    /** Sends wire changes to the players that can see them. Players watching a chunk that gained or lost a system (or
+     * that have started watching new chunks) get every system they can see, everyone else only gets the powered state
+     * of the systems that changed. Nothing is done if nothing changed. */
+    private void syncToPlayers(ServerLevel level) {
+        if (changedChunks.isEmpty() && changedSystems.isEmpty() && changedPlayers.isEmpty()) {
+            return;
+        }
+        ChunkMap chunkMap = level.getChunkSource().chunkMap;
+
+        Set<ServerPlayer> fullResend = new HashSet<>();
+        LongIterator chunkIter = changedChunks.iterator();
+        while (chunkIter.hasNext()) {
+            fullResend.addAll(chunkMap.getPlayers(new ChunkPos(chunkIter.nextLong()), false));
+        }
+        // Players that only moved don't need to be told about an empty area
+        Set<ServerPlayer> onlyIfNotEmpty = new HashSet<>();
+        for (Player player : changedPlayers) {
+            if (player instanceof ServerPlayer && player.level == level && !fullResend.contains(player)) {
+                onlyIfNotEmpty.add((ServerPlayer) player);
+            }
+        }
+
+        Map<ServerPlayer, Map<Integer, Boolean>> poweredUpdates = new HashMap<>();
+        for (WireSystem wireSystem : changedSystems) {
+            Boolean powered = wireSystems.get(wireSystem);
+            if (powered == null) {
+                // Removed since it changed
+                continue;
+            }
+            for (long chunkKey : wireSystem.getChunkKeys()) {
+                for (ServerPlayer player : chunkMap.getPlayers(new ChunkPos(chunkKey), false)) {
+                    if (!fullResend.contains(player) && !onlyIfNotEmpty.contains(player)) {
+                        poweredUpdates.computeIfAbsent(player, p -> new HashMap<>())
+                            .put(wireSystem.getWiresHashCode(), powered);
+                    }
+                }
+            }
+        }
+
+        int viewDistance = level.getServer().getPlayerList().getViewDistance();
+        for (ServerPlayer player : fullResend) {
+            sendAllVisible(player, viewDistance, true);
+        }
+        for (ServerPlayer player : onlyIfNotEmpty) {
+            sendAllVisible(player, viewDistance, false);
+        }
+        poweredUpdates.forEach((player, hashesPowered) -> {
+            MessageManager.sendTo(new MessageWireSystemsPowered(hashesPowered), player);
+        });
+    }
+
+    private void sendAllVisible(ServerPlayer player, int viewDistance, boolean sendIfEmpty) {
+        ChunkPos centre = player.chunkPosition();
+        Map<Integer, WireSystem> visible = new HashMap<>();
+        Map<Integer, Boolean> hashesPowered = new HashMap<>();
+        for (int dx = -viewDistance; dx <= viewDistance; dx++) {
+            for (int dz = -viewDistance; dz <= viewDistance; dz++) {
+                Set<WireSystem> inChunk = chunkToWireSystemsIndex.get(ChunkPos.asLong(centre.x + dx, centre.z + dz));
+                if (inChunk == null) {
+                    continue;
+                }
+                for (WireSystem wireSystem : inChunk) {
+                    if (visible.put(wireSystem.getWiresHashCode(), wireSystem) == null) {
+                        hashesPowered.put(wireSystem.getWiresHashCode(), wireSystems.get(wireSystem));
+                    }
+                }
+            }
+        }
+        if (visible.isEmpty() && !sendIfEmpty) {
+            return;
+        }
+        // MessageWireSystems replaces everything that the client knows about
+        MessageManager.sendTo(new MessageWireSystems(visible), player);
+        if (!hashesPowered.isEmpty()) {
+            MessageManager.sendTo(new MessageWireSystemsPowered(hashesPowered), player);
+        }
     }
 
     @Override
@@ -199,6 +455,7 @@ public class WorldSavedDataWireSystems extends SavedData {
     	WorldSavedDataWireSystems wsds = new WorldSavedDataWireSystems();
         wsds.wireSystems.clear();
         wsds.elementsToWireSystemsIndex.clear();
+        wsds.chunkToWireSystemsIndex.clear();
 
         ListTag entriesList = nbt.getList("entries", Tag.TAG_COMPOUND);
         for(int i = 0; i < entriesList.size(); i++) {